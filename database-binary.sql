@@ -0,0 +1,120 @@
+-- Create Database, ids and foreign keys stored as BINARY(16) (app.id.storage=binary)
+CREATE DATABASE spring_restful_api;
+USE spring_restful_api;
+
+-- Table Users
+CREATE TABLE users (
+    id                      BINARY(16) NOT NULL,
+    email                   VARCHAR(255) NOT NULL,
+    password                VARCHAR(255) NOT NULL,
+    name                    VARCHAR(255) NOT NULL,
+    token                   VARCHAR(255),
+    token_expired_at        BIGINT,
+    created_at              TIMESTAMP,
+    updated_at              TIMESTAMP,
+    PRIMARY KEY (id),
+    UNIQUE (token)
+) ENGINE InnoDB;
+
+SELECT * FROM users;
+DESC users;
+
+-- Table Contacts
+CREATE TABLE contacts (
+    id                      BINARY(16) NOT NULL,
+    firstname               VARCHAR(255) NOT NULL,
+    lastname                VARCHAR(255),
+    email                   VARCHAR(255),
+    phone                   VARCHAR(15),
+    user_id                 BINARY(16) NOT NULL,
+    created_at              TIMESTAMP,
+    updated_at              TIMESTAMP,
+    PRIMARY KEY (id),
+    INDEX idx_contacts_user_created_at (user_id, created_at, id),
+    FOREIGN KEY fk_users_contacts (user_id) REFERENCES users (id)
+) ENGINE InnoDB;
+
+SELECT * FROM contacts;
+DESC contacts;
+
+-- Table Contact Trigrams (substring search index, field: 0 firstname, 1 lastname, 2 email, 3 phone)
+CREATE TABLE contact_trigrams (
+    user_id                 BINARY(16) NOT NULL,
+    field                   TINYINT NOT NULL,
+    trigram                 VARBINARY(3) NOT NULL,
+    contact_id              BINARY(16) NOT NULL,
+    PRIMARY KEY (user_id, field, trigram, contact_id),
+    INDEX idx_contact_trigrams_contact (contact_id),
+    FOREIGN KEY fk_contacts_contact_trigrams (contact_id) REFERENCES contacts (id) ON DELETE CASCADE
+) ENGINE InnoDB;
+
+SELECT * FROM contact_trigrams;
+DESC contact_trigrams;
+
+-- Table Contact Trigram Pending (bulk inserted contacts whose trigrams are still being built)
+CREATE TABLE contact_trigram_pending (
+    user_id                 BINARY(16) NOT NULL,
+    contact_id              BINARY(16) NOT NULL,
+    PRIMARY KEY (user_id, contact_id),
+    INDEX idx_contact_trigram_pending_contact (contact_id),
+    FOREIGN KEY fk_contacts_contact_trigram_pending (contact_id) REFERENCES contacts (id) ON DELETE CASCADE
+) ENGINE InnoDB;
+
+SELECT * FROM contact_trigram_pending;
+DESC contact_trigram_pending;
+
+-- Table Addresses
+CREATE TABLE addresses (
+    id                      BINARY(16) NOT NULL,
+    street                  VARCHAR(255),
+    city                    VARCHAR(255),
+    province                VARCHAR(255),
+    country                 VARCHAR(255) NOT NULL,
+    postal_code             VARCHAR(5) NOT NULL,
+    contact_id              BINARY(16) NOT NULL,
+    created_at              TIMESTAMP,
+    updated_at              TIMESTAMP,
+    PRIMARY KEY (id),
+    FOREIGN KEY fk_contacts_contacts (contact_id) REFERENCES contacts (id)
+) ENGINE InnoDB;
+
+SELECT * FROM addresses;
+DESC addresses;
+
+-- Table Categories
+CREATE TABLE categories (
+    id                      BINARY(16) NOT NULL,
+    name                    VARCHAR(255) NOT NULL,
+    created_at              TIMESTAMP,
+    updated_at              TIMESTAMP,
+    PRIMARY KEY (id)
+) ENGINE InnoDB;
+
+SELECT * FROM categories;
+DESC categories;
+
+-- Table Products
+CREATE TABLE products (
+    id                      BINARY(16) NOT NULL,
+    name                    VARCHAR(255) NOT NULL,
+    price_buy               DOUBLE(100, 2) NOT NULL,
+    price_sell              DOUBLE(100, 2) NOT NULL,
+    stock                   INT(100) NOT NULL,
+    description             TEXT(255),
+    category_id             BINARY(16) NOT NULL,
+    created_at              TIMESTAMP,
+    updated_at              TIMESTAMP,
+    PRIMARY KEY (id),
+    INDEX idx_products_created_at (created_at, id),
+    INDEX idx_products_price_buy (price_buy, id),
+    INDEX idx_products_price_sell (price_sell, id),
+    INDEX idx_products_stock (stock, id),
+    INDEX idx_products_category_created_at (category_id, created_at, id),
+    INDEX idx_products_category_price_sell (category_id, price_sell, id),
+    INDEX idx_products_category_stock (category_id, stock, id),
+    FULLTEXT INDEX ft_products_name_description (name, description),
+    FOREIGN KEY fk_categories_products (category_id) REFERENCES categories (id)
+) ENGINE InnoDB;
+
+SELECT * FROM products;
+DESC products;
@@ -36,6 +36,35 @@ CREATE TABLE contacts (
 SELECT * FROM contacts;
 DESC contacts;
 
+-- Table Contact Trigrams (substring search index, field: 0 firstname, 1 lastname, 2 email, 3 phone)
+CREATE TABLE contact_trigrams (
+    user_id                 VARCHAR(255) NOT NULL,
+    field                   TINYINT NOT NULL,
+    trigram                 VARBINARY(3) NOT NULL,
+    contact_id              VARCHAR(255) NOT NULL,
+    PRIMARY KEY (user_id, field, trigram, contact_id),
+    INDEX idx_contact_trigrams_contact (contact_id),
+    FOREIGN KEY fk_contacts_contact_trigrams (contact_id) REFERENCES contacts (id) ON DELETE CASCADE
+) ENGINE InnoDB;
+
+SELECT * FROM contact_trigrams;
+DESC contact_trigrams;
+
+-- Table Contact Trigram Pending (bulk inserted contacts whose trigrams are still being built)
+CREATE TABLE contact_trigram_pending (
+    user_id                 VARCHAR(255) NOT NULL,
+    contact_id              VARCHAR(255) NOT NULL,
+    PRIMARY KEY (user_id, contact_id),
+    INDEX idx_contact_trigram_pending_contact (contact_id),
+    FOREIGN KEY fk_contacts_contact_trigram_pending (contact_id) REFERENCES contacts (id) ON DELETE CASCADE
+) ENGINE InnoDB;
+
+SELECT * FROM contact_trigram_pending;
+DESC contact_trigram_pending;
+
+-- Migration: queue the contacts created before the trigram index, search treats them as candidates until they are indexed
+INSERT IGNORE INTO contact_trigram_pending (user_id, contact_id) SELECT user_id, id FROM contacts;
+
 -- Table Addresses
 CREATE TABLE addresses (
     id                      VARCHAR(255) NOT NULL,
@@ -83,3 +112,26 @@ CREATE TABLE products (
 
 SELECT * FROM products;
 DESC products;
+
+-- Migration: keyset paging over contacts and products
+ALTER TABLE contacts
+    ADD INDEX idx_contacts_user_created_at (user_id, created_at, id);
+
+ALTER TABLE products
+    ADD INDEX idx_products_created_at (created_at, id);
+
+-- Migration: product full-text search
+ALTER TABLE products
+    ADD FULLTEXT INDEX ft_products_name_description (name, description);
+
+-- Migration: product range filters, category filter and sorting
+ALTER TABLE products
+    ADD INDEX idx_products_price_buy (price_buy, id),
+    ADD INDEX idx_products_price_sell (price_sell, id),
+    ADD INDEX idx_products_stock (stock, id),
+    ADD INDEX idx_products_category_created_at (category_id, created_at, id),
+    ADD INDEX idx_products_category_price_sell (category_id, price_sell, id),
+    ADD INDEX idx_products_category_stock (category_id, stock, id);
+
+SHOW INDEX FROM contacts;
+SHOW INDEX FROM products;
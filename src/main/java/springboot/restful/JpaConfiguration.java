@@ -0,0 +1,92 @@
+package springboot.restful;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+@Configuration
+public class JpaConfiguration {
+
+    public static final String PRODUCT_REGION = "products";
+
+    public static final String CATEGORY_REGION = "categories";
+
+    @Value("${app.entity-cache.product.maximum-size:10000}")
+    private long productMaximumSize;
+
+    @Value("${app.entity-cache.category.maximum-size:1000}")
+    private long categoryMaximumSize;
+
+    @Value("${app.entity-cache.query.maximum-size:1000}")
+    private long queryMaximumSize;
+
+    @Value("${app.entity-cache.ttl:10m}")
+    private Duration ttl;
+
+    // Schema from database-binary.sql, or database.sql after BinaryIdMigration has run.
+    @Bean
+    @ConditionalOnProperty(name = "app.id.storage", havingValue = "binary")
+    EntityManagerFactoryBuilderCustomizer binaryIdMapping() {
+        return builder -> builder.setPersistenceUnitPostProcessors(
+            persistenceUnit -> persistenceUnit.addMappingFileName("META-INF/binary-ids.orm.xml")
+        );
+    }
+
+    /**
+     * One cache manager per application context, so test contexts against other databases do not
+     * share entries. The caches are local to this instance: writes made through another instance are
+     * only seen here once the entry is older than {@code app.entity-cache.ttl}.
+     */
+    @Bean(destroyMethod = "close")
+    CacheManager entityCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("entity-cache-" + System.identityHashCode(this)), getClass().getClassLoader());
+
+        cacheManager.createCache(PRODUCT_REGION, boundedRegion(productMaximumSize));
+        cacheManager.createCache(CATEGORY_REGION, boundedRegion(categoryMaximumSize));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, boundedRegion(queryMaximumSize));
+        // One small entry per table, it must not be evicted or cached query results could outlive a write.
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unboundedRegion());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer entityCache(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.use_query_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", entityCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            properties.put("hibernate.generate_statistics", true);
+        };
+    }
+
+    private CaffeineConfiguration<Object, Object> boundedRegion(long maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = unboundedRegion();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unboundedRegion() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate already stores disassembled, immutable entries, copying them on every get is wasted work.
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+}
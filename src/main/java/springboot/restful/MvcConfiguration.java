@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import springboot.restful.resolver.ReactiveUserArgumentResolver;
 import springboot.restful.resolver.UserArgumentResolver;
 
 @Configuration
@@ -15,9 +16,13 @@ public class MvcConfiguration implements WebMvcConfigurer {
     @Autowired
     private UserArgumentResolver userArgumentResolver;
 
+    @Autowired
+    private ReactiveUserArgumentResolver reactiveUserArgumentResolver;
+
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
         WebMvcConfigurer.super.addArgumentResolvers(resolvers);
         resolvers.add(userArgumentResolver);
+        resolvers.add(reactiveUserArgumentResolver);
     }
 }
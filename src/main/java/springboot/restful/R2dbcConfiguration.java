@@ -0,0 +1,71 @@
+package springboot.restful;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Non-blocking access to the same database for the {@code /reactive} endpoints. Spring Boot's R2DBC
+ * auto-configuration is excluded: a {@code ConnectionFactory} bean would make it back off the JDBC
+ * {@code DataSource}, and an R2DBC transaction manager bean the JPA one. So neither is a bean here,
+ * only the {@link DatabaseClient} and a {@link TransactionalOperator} built on them.
+ */
+@Configuration
+public class R2dbcConfiguration {
+
+    @Value("${app.r2dbc.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.r2dbc.pool.max-size:10}")
+    private int maxSize;
+
+    private ConnectionPool connectionPool;
+
+    private ConnectionPool connectionPool() {
+        if (connectionPool == null) {
+            ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+            connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .build());
+        }
+        return connectionPool;
+    }
+
+    @Bean
+    DatabaseClient reactiveDatabaseClient() {
+        return DatabaseClient.create(connectionPool());
+    }
+
+    @Bean
+    TransactionalOperator reactiveTransactionalOperator() {
+        R2dbcTransactionManager transactionManager = new R2dbcTransactionManager(connectionPool());
+        transactionManager.afterPropertiesSet();
+        return TransactionalOperator.create(transactionManager);
+    }
+
+    @PreDestroy
+    void close() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
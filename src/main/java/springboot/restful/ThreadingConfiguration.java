@@ -0,0 +1,31 @@
+package springboot.restful;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * {@code spring.threads.virtual.enabled=true} runs request handling, and with it the
+ * {@code @Transactional} service calls, plus {@code @Scheduled} jobs on virtual threads instead of
+ * Tomcat's pool of {@code server.tomcat.threads.max} platform threads. The connection pool is then
+ * the only limit on concurrent queries: a request waits up to
+ * {@code spring.datasource.hikari.connection-timeout} for a connection rather than for a thread.
+ * <p>
+ * Needs Java 21: the default build targets Java 17 and cannot enable it, the {@code virtual-threads}
+ * Maven profile builds for Java 21.
+ */
+@Configuration
+public class ThreadingConfiguration {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Spring Boot silently keeps platform threads below Java 21, which would hide a misconfiguration.
+    @PostConstruct
+    void init() {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java 21 or later, running on " + Runtime.version());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package springboot.restful.cache;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Loads that query the database, run on the calling thread. {@code Cache.get(key, loader)} runs the
+ * loader inside a {@code ConcurrentHashMap} bin lock, which pins a virtual thread to its carrier for
+ * the whole query; here the map only holds a future while the load happens outside of it. Concurrent
+ * callers for the same key still wait for the one load.
+ */
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> load) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (ignored, executor) -> loading);
+
+        if (future == loading) {
+            // Any throwable, an Error included, must complete the future or the waiters hang on it forever.
+            try {
+                loading.complete(load.apply(key));
+            } catch (Throwable throwable) {
+                loading.completeExceptionally(throwable);
+                throw throwable;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+        }
+    }
+
+    // Null while the value is still being loaded, so writers never wait on a load.
+    static <K, V> V getIfLoaded(AsyncCache<K, V> cache, K key) {
+        return getIfLoaded(cache.getIfPresent(key));
+    }
+
+    static <V> V getIfLoaded(CompletableFuture<V> future) {
+        if (Objects.isNull(future) || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+
+        return future.join();
+    }
+}
@@ -0,0 +1,141 @@
+package springboot.restful.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import springboot.restful.entity.Category;
+import springboot.restful.repository.CategoryRepository;
+
+/**
+ * Every category held in memory, loaded at startup and kept current by {@link CategoryCacheListener}.
+ * A miss reads through to the database, so categories written by another instance are picked up on
+ * first use; renames and deletes made elsewhere show up after {@code app.category-cache.refresh}.
+ */
+@Component
+public class CategoryCache {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+
+    private Counter hits;
+
+    private Counter misses;
+
+    private Timer reloadTimer;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("cache.gets").tag("cache", "categories").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("cache.gets").tag("cache", "categories").tag("result", "miss").register(meterRegistry);
+        reloadTimer = Timer.builder("cache.reload").tag("cache", "categories").register(meterRegistry);
+        Gauge.builder("cache.size", categories, Map::size).tag("cache", "categories").register(meterRegistry);
+
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.category-cache.refresh:5m}", initialDelayString = "${app.category-cache.refresh:5m}")
+    public void reload() {
+        reloadTimer.record(() -> {
+            Set<String> ids = categoryRepository.findAll().stream()
+                .map(category -> {
+                    put(category);
+                    return category.getId();
+                })
+                .collect(Collectors.toSet());
+
+            categories.keySet().retainAll(ids);
+        });
+    }
+
+    public Optional<Category> get(String id) {
+        if (Objects.isNull(id)) {
+            return Optional.empty();
+        }
+
+        Category category = categories.get(id);
+        if (Objects.nonNull(category)) {
+            hits.increment();
+            return Optional.of(copyOf(category));
+        }
+
+        misses.increment();
+        return categoryRepository.findById(id).map(found -> {
+            put(found);
+            return copyOf(found);
+        });
+    }
+
+    // Categories that are not cached yet are read with one query for all of them.
+    public Map<String, Category> getAll(Collection<String> ids) {
+        Map<String, Category> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : new HashSet<>(ids)) {
+            Category category = categories.get(id);
+            if (Objects.nonNull(category)) {
+                hits.increment();
+                found.put(id, copyOf(category));
+            } else {
+                misses.increment();
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Category category : categoryRepository.findAllById(missing)) {
+                put(category);
+                found.put(category.getId(), copyOf(category));
+            }
+        }
+        return found;
+    }
+
+    public boolean exists(String id) {
+        return get(id).isPresent();
+    }
+
+    public void put(Category category) {
+        // Keep whichever copy was updated last, a reload may have read the row before a concurrent update.
+        categories.merge(category.getId(), copyOf(category), (current, candidate) ->
+            Objects.nonNull(current.getUpdatedAt()) && Objects.nonNull(candidate.getUpdatedAt())
+                && current.getUpdatedAt().after(candidate.getUpdatedAt()) ? current : candidate);
+    }
+
+    public void evict(String id) {
+        if (Objects.nonNull(id)) {
+            categories.remove(id);
+        }
+    }
+
+    private Category copyOf(Category category) {
+        return new Category(
+            category.getId(),
+            category.getName(),
+            category.getCreatedAt(),
+            category.getUpdatedAt(),
+            null
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package springboot.restful.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import springboot.restful.entity.Category;
+
+@Component
+public class CategoryCacheListener {
+
+    // Lazy: Hibernate creates this listener while the EntityManagerFactory that CategoryCache needs is being built.
+    @Lazy
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @PostPersist
+    @PostUpdate
+    public void put(Category category) {
+        Category snapshot = new Category(category.getId(), category.getName(), category.getCreatedAt(), category.getUpdatedAt(), null);
+
+        // Until commit other requests read through to the database; a rollback leaves nothing behind.
+        categoryCache.evict(snapshot.getId());
+        afterCommit(() -> categoryCache.put(snapshot));
+    }
+
+    @PostRemove
+    public void evict(Category category) {
+        String id = category.getId();
+
+        categoryCache.evict(id);
+        afterCommit(() -> categoryCache.evict(id));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
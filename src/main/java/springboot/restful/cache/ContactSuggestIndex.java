@@ -0,0 +1,232 @@
+package springboot.restful.cache;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import springboot.restful.entity.Contact;
+import springboot.restful.model.ContactResponse;
+import springboot.restful.repository.ContactRepository;
+
+/**
+ * Per-user prefix index over contact first name, last name and email for type-ahead suggestions.
+ * A user's index is loaded on first use and kept current by {@link ContactSuggestListener}; idle
+ * indexes expire after {@code app.contact-suggest.ttl}, every index is reloaded at the latest after
+ * {@code app.contact-suggest.max-age} so changes made by other instances show up, and the total
+ * number of indexed contacts is bounded by {@code app.contact-suggest.maximum-contacts}.
+ */
+@Component
+public class ContactSuggestIndex {
+
+    // Sorts after every character a folded key can contain, so [prefix, prefix + END) is the prefix range.
+    private static final char END = Character.MAX_VALUE;
+
+    private static final char SEPARATOR = '\u0000';
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.contact-suggest.maximum-contacts:1000000}")
+    private long maximumContacts;
+
+    @Value("${app.contact-suggest.ttl:30m}")
+    private Duration ttl;
+
+    @Value("${app.contact-suggest.max-age:5m}")
+    private Duration maxAge;
+
+    private AsyncCache<String, UserIndex> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maximumContacts)
+            .weigher((String userId, UserIndex index) -> Math.max(1, index.contacts.size()))
+            .expireAfter(new Expiry<String, UserIndex>() {
+                @Override
+                public long expireAfterCreate(String userId, UserIndex index, long currentTime) {
+                    return expiresIn(index, currentTime);
+                }
+
+                @Override
+                public long expireAfterUpdate(String userId, UserIndex index, long currentTime, long currentDuration) {
+                    return expiresIn(index, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String userId, UserIndex index, long currentTime, long currentDuration) {
+                    return expiresIn(index, currentTime);
+                }
+            })
+            .recordStats()
+            .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "contact-suggest");
+    }
+
+    public List<ContactResponse> suggest(String userId, String prefix, int limit) {
+        String key = fold(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        UserIndex index = CacheLoads.get(cache, userId, this::load);
+
+        Set<String> ids = new LinkedHashSet<>();
+        List<ContactResponse> result = new ArrayList<>(limit);
+        for (String contactId : index.keys.subMap(key, key + END).values()) {
+            if (result.size() == limit) {
+                break;
+            }
+
+            ContactResponse contact = index.contacts.get(contactId);
+            if (Objects.nonNull(contact) && ids.add(contactId)) {
+                result.add(contact);
+            }
+        }
+        return result;
+    }
+
+    public void put(String userId, ContactResponse contact) {
+        UserIndex index = CacheLoads.getIfLoaded(cache, userId);
+        if (Objects.isNull(index)) {
+            // Also drops an index that is being loaded and might not see this write yet.
+            cache.synchronous().invalidate(userId);
+            return;
+        }
+
+        index.put(contact);
+        reweigh(userId, index);
+    }
+
+    public void remove(String userId, String contactId) {
+        UserIndex index = CacheLoads.getIfLoaded(cache, userId);
+        if (Objects.isNull(index)) {
+            cache.synchronous().invalidate(userId);
+            return;
+        }
+
+        index.remove(contactId);
+        reweigh(userId, index);
+    }
+
+    // Caffeine weighs an entry only when it is written, so a changed index is written back. Nothing
+    // is written when the entry was invalidated or reloaded in the meantime.
+    private void reweigh(String userId, UserIndex index) {
+        cache.asMap().computeIfPresent(userId, (key, future) ->
+            CacheLoads.getIfLoaded(future) == index ? CompletableFuture.completedFuture(index) : future);
+    }
+
+    // Idle for ttl or loaded maxAge ago, whichever comes first; writing the index back keeps its load time.
+    private long expiresIn(UserIndex index, long currentTime) {
+        return Math.max(0, Math.min(ttl.toNanos(), index.loadedAt + maxAge.toNanos() - currentTime));
+    }
+
+    private UserIndex load(String userId) {
+        UserIndex index = new UserIndex();
+        for (Contact contact : contactRepository.findAllByUserId(userId)) {
+            index.put(toContactResponse(contact));
+        }
+        return index;
+    }
+
+    static ContactResponse toContactResponse(Contact contact) {
+        return ContactResponse.builder()
+            .id(contact.getId())
+            .firstname(contact.getFirstname())
+            .lastname(contact.getLastname())
+            .email(contact.getEmail())
+            .phone(contact.getPhone())
+            .createdAt(contact.getCreatedAt())
+            .updatedAt(contact.getUpdatedAt())
+            .build();
+    }
+
+    static String fold(String value) {
+        if (Objects.isNull(value)) {
+            return "";
+        }
+
+        return Normalizer.normalize(value.strip(), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Keys are {@code <folded value>\0<contact id>}, one per indexed field. Reads are lock-free;
+     * writes take a lock so the keys of a contact are always replaced as a whole.
+     */
+    private static class UserIndex {
+
+        // Same clock as Caffeine's default ticker.
+        private final long loadedAt = System.nanoTime();
+
+        private final ConcurrentSkipListMap<String, String> keys = new ConcurrentSkipListMap<>();
+
+        private final Map<String, ContactResponse> contacts = new ConcurrentHashMap<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        void put(ContactResponse contact) {
+            lock.lock();
+            try {
+                removeKeys(contacts.put(contact.getId(), contact));
+                for (String key : keysOf(contact)) {
+                    keys.put(key, contact.getId());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String contactId) {
+            lock.lock();
+            try {
+                removeKeys(contacts.remove(contactId));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void removeKeys(ContactResponse contact) {
+            if (Objects.nonNull(contact)) {
+                keysOf(contact).forEach(keys::remove);
+            }
+        }
+
+        private static List<String> keysOf(ContactResponse contact) {
+            List<String> result = new ArrayList<>(3);
+            for (String value : new String[] { contact.getFirstname(), contact.getLastname(), contact.getEmail() }) {
+                String folded = fold(value);
+                if (!folded.isEmpty()) {
+                    result.add(folded + SEPARATOR + contact.getId());
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package springboot.restful.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import springboot.restful.entity.Contact;
+import springboot.restful.model.ContactResponse;
+
+@Component
+public class ContactSuggestListener {
+
+    // Lazy: Hibernate creates this listener while the EntityManagerFactory that ContactSuggestIndex needs is being built.
+    @Lazy
+    @Autowired
+    private ContactSuggestIndex contactSuggestIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void put(Contact contact) {
+        String userId = contact.getUser().getId();
+        ContactResponse snapshot = ContactSuggestIndex.toContactResponse(contact);
+
+        afterCommit(() -> contactSuggestIndex.put(userId, snapshot));
+    }
+
+    @PostRemove
+    public void remove(Contact contact) {
+        String userId = contact.getUser().getId();
+        String id = contact.getId();
+
+        afterCommit(() -> contactSuggestIndex.remove(userId, id));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package springboot.restful.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate second-level cache statistics per region, at {@code /actuator/entitycache}. Counted
+ * since startup on this instance only.
+ */
+@Component
+@Endpoint(id = "entitycache")
+public class EntityCacheEndpoint {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Includes the query results and update timestamps regions next to the entity regions.
+    @ReadOperation
+    public Map<String, Map<String, Object>> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Map<String, Object>> regions = new LinkedHashMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("hits", hits);
+            response.put("misses", misses);
+            response.put("puts", region.getPutCount());
+            response.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            regions.put(name, response);
+        }
+        return regions;
+    }
+}
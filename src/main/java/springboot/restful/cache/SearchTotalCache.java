@@ -0,0 +1,49 @@
+package springboot.restful.cache;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Row counts of recent searches, for clients of the count-free slice mode that still want a rough
+ * total. Values may be up to {@code app.search-total-cache.ttl} old and are never invalidated on writes.
+ */
+@Component
+public class SearchTotalCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.search-total-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${app.search-total-cache.ttl:1m}")
+    private Duration ttl;
+
+    private AsyncCache<String, Long> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search-totals");
+    }
+
+    public long get(String key, Supplier<Long> count) {
+        return CacheLoads.get(cache, key, ignored -> count.get());
+    }
+}
@@ -0,0 +1,203 @@
+package springboot.restful.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import springboot.restful.entity.User;
+
+/**
+ * Token to user cache used by {@link springboot.restful.security.TokenVerifier}.
+ * Entries never outlive the token itself ({@code tokenExpiredAt}) nor {@code app.token-cache.ttl}.
+ * Tokens that failed to resolve are remembered for {@code app.token-cache.negative-ttl} so retry
+ * loops with a bad token do not reach the database.
+ * <p>
+ * A user read before an eviction must not be cached after it, or a revoked token would keep working
+ * until the entry expires: callers take {@link #generation(String)} before reading the user and hand
+ * it to {@link #put(String, User, long)}, which refuses the entry once the token was evicted since.
+ */
+@Component
+public class TokenCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.token-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${app.token-cache.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${app.token-cache.negative-maximum-size:100000}")
+    private long negativeMaximumSize;
+
+    @Value("${app.token-cache.negative-ttl:30s}")
+    private Duration negativeTtl;
+
+    private Cache<String, User> cache;
+
+    private Cache<String, Boolean> invalidTokens;
+
+    private final Map<String, String> tokenByEmail = new ConcurrentHashMap<>();
+
+    // Eviction counts striped by token, bumped before the entry is invalidated.
+    private final AtomicLongArray generations = new AtomicLongArray(64);
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new TokenExpiry())
+            .removalListener((String token, User user, RemovalCause cause) -> {
+                if (Objects.nonNull(user)) {
+                    tokenByEmail.remove(user.getEmail(), token);
+                }
+            })
+            .recordStats()
+            .build();
+
+        invalidTokens = Caffeine.newBuilder()
+            .maximumSize(negativeMaximumSize)
+            .expireAfterWrite(negativeTtl)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokens");
+        CaffeineCacheMetrics.monitor(meterRegistry, invalidTokens, "invalid-tokens");
+    }
+
+    public Optional<User> get(String token) {
+        return Optional.ofNullable(cache.getIfPresent(token)).map(this::copyOf);
+    }
+
+    public boolean isKnownInvalid(String token) {
+        return Objects.nonNull(invalidTokens.getIfPresent(token));
+    }
+
+    public void markInvalid(String token) {
+        cache.invalidate(token);
+        invalidTokens.put(token, Boolean.TRUE);
+    }
+
+    public long generation(String token) {
+        return generations.get(stripe(token));
+    }
+
+    /**
+     * Caches {@code user} for {@code token} unless the token was evicted after {@code generation} was
+     * taken. An eviction racing with the put is caught by the second check, or else runs after it and
+     * invalidates the entry itself.
+     */
+    public void put(String token, User user, long generation) {
+        if (Objects.isNull(token) || Objects.isNull(user.getTokenExpiredAt()) || generation(token) != generation) {
+            return;
+        }
+
+        String previous = tokenByEmail.put(user.getEmail(), token);
+        if (Objects.nonNull(previous) && !previous.equals(token)) {
+            cache.invalidate(previous);
+        }
+
+        cache.put(token, copyOf(user));
+
+        if (generation(token) != generation) {
+            cache.invalidate(token);
+        }
+    }
+
+    public void evict(String token) {
+        if (Objects.nonNull(token)) {
+            generations.incrementAndGet(stripe(token));
+            cache.invalidate(token);
+            invalidTokens.invalidate(token);
+        }
+    }
+
+    public void evictUser(String email) {
+        if (Objects.isNull(email)) {
+            return;
+        }
+
+        String token = tokenByEmail.remove(email);
+        if (Objects.nonNull(token)) {
+            generations.incrementAndGet(stripe(token));
+            cache.invalidate(token);
+        }
+    }
+
+    /**
+     * Evicts the user's entry and {@code token} for a write to the user row. Inside a transaction the
+     * eviction is repeated after commit, since a request running between the write and the commit may
+     * still re-cache the old row.
+     */
+    public void evictAfterWrite(String email, String token) {
+        evictUser(email);
+        evict(token);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictUser(email);
+                    evict(token);
+                }
+            });
+        }
+    }
+
+    private int stripe(String token) {
+        return (token.hashCode() & Integer.MAX_VALUE) % generations.length();
+    }
+
+    // Callers get their own instance so a request mutating its User never leaks into the cache.
+    private User copyOf(User user) {
+        return new User(
+            user.getId(),
+            user.getEmail(),
+            user.getPassword(),
+            user.getName(),
+            user.getToken(),
+            user.getCreatedAt(),
+            user.getUpdatedAt(),
+            user.getTokenExpiredAt(),
+            null
+        );
+    }
+
+    private class TokenExpiry implements Expiry<String, User> {
+
+        @Override
+        public long expireAfterCreate(String token, User user, long currentTime) {
+            long untilTokenExpires = TimeUnit.MILLISECONDS.toNanos(user.getTokenExpiredAt() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttl.toNanos(), untilTokenExpires));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, User user, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, User user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package springboot.restful.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import springboot.restful.entity.User;
+
+@Component
+public class UserCacheListener {
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        tokenCache.evictAfterWrite(user.getEmail(), user.getToken());
+    }
+}
@@ -1,9 +1,16 @@
 package springboot.restful.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,22 +20,59 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import springboot.restful.entity.User;
+import springboot.restful.model.AddressResponse;
+import springboot.restful.model.BulkItemResponse;
 import springboot.restful.model.ContactResponse;
+import springboot.restful.model.MultiGetResponse;
 import springboot.restful.model.PagingResponse;
 import springboot.restful.model.WebResponse;
 import springboot.restful.request.CreateContactRequest;
+import springboot.restful.request.MultiGetRequest;
 import springboot.restful.request.SearchContactRequest;
 import springboot.restful.request.UpdateContactRequest;
 import springboot.restful.service.ContactService;
+import springboot.restful.service.CursorCodec;
 
 @RestController
 public class ContactController {
 
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    // One row per address, contacts without an address get a row with empty address columns.
+    private static final CsvSchema EXPORT_SCHEMA = CsvSchema.builder()
+        .addColumn("id")
+        .addColumn("firstname")
+        .addColumn("lastname")
+        .addColumn("email")
+        .addColumn("phone")
+        .addColumn("addressId")
+        .addColumn("street")
+        .addColumn("city")
+        .addColumn("province")
+        .addColumn("country")
+        .addColumn("postalCode")
+        .build()
+        .withHeader();
+
     @Autowired
     private ContactService contactService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping(
         path = "/contacts",
         consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -43,12 +87,124 @@ public class ContactController {
             .build();
     }
 
+    // Reads a JSON array or newline-delimited JSON one item at a time, the body is never held in memory as a whole.
+    @PostMapping(
+        path = "/contacts/bulk",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<List<BulkItemResponse>> bulkCreate(User user, HttpServletRequest servletRequest) {
+        List<BulkItemResponse> results;
+        try (MappingIterator<CreateContactRequest> requests = objectMapper.readerFor(CreateContactRequest.class).readValues(servletRequest.getInputStream())) {
+            results = contactService.bulkCreate(user, requests);
+        } catch (IOException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed request body");
+        }
+
+        return WebResponse.<List<BulkItemResponse>> builder()
+            .messages("Bulk create contact success")
+            .data(results)
+            .build();
+    }
+
+    @PostMapping(
+        path = "/contacts/_mget",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<MultiGetResponse<ContactResponse>> getAll(User user, @RequestBody MultiGetRequest request) {
+        MultiGetResponse<ContactResponse> contactResponses = contactService.getAll(user, request);
+
+        return WebResponse.<MultiGetResponse<ContactResponse>> builder()
+            .messages("Get contact success")
+            .data(contactResponses)
+            .build();
+    }
+
+    @GetMapping(path = "/contacts/export")
+    public void export(
+            User user,
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+            HttpServletResponse servletResponse
+        ) throws IOException {
+
+        if (!format.equals("ndjson") && !format.equals("csv")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format must be ndjson or csv");
+        }
+
+        servletResponse.setContentType(format.equals("csv") ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        servletResponse.setCharacterEncoding("UTF-8");
+        servletResponse.setHeader("Content-Disposition", "attachment; filename=\"contacts." + format + "\"");
+
+        OutputStream outputStream = servletResponse.getOutputStream();
+        if (format.equals("csv")) {
+            try (SequenceWriter writer = CSV_MAPPER.writer(EXPORT_SCHEMA).writeValues(outputStream)) {
+                contactService.export(user, contact -> writeCsv(writer, contact));
+            }
+        } else {
+            ObjectWriter writer = objectMapper.writerFor(ContactResponse.class);
+            contactService.export(user, contact -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(contact));
+                    outputStream.write('\n');
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+    }
+
+    private static void writeCsv(SequenceWriter writer, ContactResponse contact) {
+        try {
+            if (contact.getAddresses().isEmpty()) {
+                writer.write(csvRow(contact.getId(), contact.getFirstname(), contact.getLastname(), contact.getEmail(), contact.getPhone()));
+            }
+
+            for (AddressResponse address : contact.getAddresses()) {
+                writer.write(csvRow(
+                    contact.getId(), contact.getFirstname(), contact.getLastname(), contact.getEmail(), contact.getPhone(),
+                    address.getId(), address.getStreet(), address.getCity(), address.getProvince(), address.getCountry(), address.getPostalCode()
+                ));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    // The CSV generator drops null array elements instead of leaving the column empty.
+    private static String[] csvRow(String... values) {
+        return Arrays.stream(values).map(value -> Objects.toString(value, "")).toArray(String[]::new);
+    }
+
+    @GetMapping(
+        path = "/contacts/suggest",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<List<ContactResponse>> suggest(
+            User user,
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "limit", required = false, defaultValue = "10") Integer limit
+        ) {
+
+        List<ContactResponse> contactResponses = contactService.suggest(user, query, limit);
+
+        return WebResponse.<List<ContactResponse>> builder()
+            .messages("Suggest contact success")
+            .data(contactResponses)
+            .build();
+    }
+
     @GetMapping(
         path = "/contacts/{contactId}",
         produces = MediaType.APPLICATION_JSON_VALUE
     )
-    public WebResponse<ContactResponse> get(User user, @PathVariable(value = "contactId") String contactId) {
-        ContactResponse contactResponse = contactService.get(user, contactId);
+    public WebResponse<ContactResponse> get(
+            User user,
+            @PathVariable(value = "contactId") String contactId,
+            @RequestParam(value = "include", required = false) String include
+        ) {
+
+        ContactResponse contactResponse = contactService.get(user, contactId, includeAddresses(include));
 
         return WebResponse.<ContactResponse> builder()
             .messages("Get contact success")
@@ -56,6 +212,17 @@ public class ContactController {
             .build();
     }
 
+    private static boolean includeAddresses(String include) {
+        if (Objects.isNull(include)) {
+            return false;
+        }
+
+        if (!include.equals("addresses")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Include must be addresses");
+        }
+        return true;
+    }
+
     @PutMapping(
         path = "/contacts/{contactId}",
         consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -93,7 +260,11 @@ public class ContactController {
             @RequestParam(value = "email", required = false) String email,
             @RequestParam(value = "phone", required = false) String phone,
             @RequestParam(value = "page", required = false, defaultValue = "0") Integer page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size
+            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "withTotal", required = false, defaultValue = "true") Boolean withTotal,
+            @RequestParam(value = "approximateTotal", required = false, defaultValue = "false") Boolean approximateTotal,
+            @RequestParam(value = "include", required = false) String include
         ) {
 
         SearchContactRequest request = SearchContactRequest.builder()
@@ -102,8 +273,45 @@ public class ContactController {
             .phone(phone)
             .page(page)
             .size(size)
+            .cursor(cursor)
+            .includeAddresses(includeAddresses(include))
             .build();
 
+        if (Objects.nonNull(cursor)) {
+            Window<ContactResponse> contactResponses = contactService.scroll(user, request);
+
+            return WebResponse.<List<ContactResponse>> builder()
+                .messages("Search contact success")
+                .data(contactResponses.getContent())
+                .paging(
+                    PagingResponse
+                    .builder()
+                    .size(size)
+                    .nextCursor(CursorCodec.nextCursor(contactResponses))
+                    .hasNext(contactResponses.hasNext())
+                    .build()
+                )
+                .build();
+        }
+
+        if (!withTotal) {
+            Window<ContactResponse> contactResponses = contactService.slice(user, request);
+
+            return WebResponse.<List<ContactResponse>> builder()
+                .messages("Search contact success")
+                .data(contactResponses.getContent())
+                .paging(
+                    PagingResponse
+                    .builder()
+                    .currentPage(page)
+                    .size(size)
+                    .hasNext(contactResponses.hasNext())
+                    .approximateTotal(approximateTotal ? contactService.approximateTotal(user, request) : null)
+                    .build()
+                )
+                .build();
+        }
+
         Page<ContactResponse> contactResponse = contactService.search(user, request);
 
         return WebResponse.<List<ContactResponse>> builder()
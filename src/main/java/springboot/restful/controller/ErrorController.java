@@ -7,17 +7,26 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.validation.ConstraintViolationException;
+import springboot.restful.exception.UnauthorizedException;
 import springboot.restful.model.WebResponse;
 
 @RestControllerAdvice
 public class ErrorController {
 
+    private static final ResponseEntity<WebResponse<String>> UNAUTHORIZED = ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+        .body(WebResponse.<String> builder().errors("Unauthorized").build());
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<WebResponse<String>> constraintViolationException(ConstraintViolationException exception) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
             .body(WebResponse.<String> builder().errors(exception.getMessage()).build());
     }
 
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<WebResponse<String>> unauthorizedException(UnauthorizedException exception) {
+        return UNAUTHORIZED;
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<WebResponse<String>> apiException(ResponseStatusException exception) {
         return ResponseEntity.status(exception.getStatusCode())
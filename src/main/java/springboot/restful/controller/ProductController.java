@@ -1,9 +1,13 @@
 package springboot.restful.controller;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,22 +17,48 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import springboot.restful.entity.User;
 import springboot.restful.model.PagingResponse;
+import springboot.restful.model.ProductImportResponse;
+import springboot.restful.model.MultiGetResponse;
 import springboot.restful.model.ProductResponse;
 import springboot.restful.model.WebResponse;
 import springboot.restful.request.CreateProductRequest;
 import springboot.restful.request.SearchProductRequest;
 import springboot.restful.request.UpdateProductRequest;
+import springboot.restful.service.CursorCodec;
+import springboot.restful.service.ProductImportService;
 import springboot.restful.service.ProductService;
 
 @RestController
 public class ProductController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping(
         path = "/products",
         consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -43,6 +73,35 @@ public class ProductController {
             .build();
     }
 
+    // CSV needs a header row with the CreateProductRequest property names; JSON may be an array or one object per line.
+    @PostMapping(
+        path = "/products/import",
+        consumes = { TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE },
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<ProductImportResponse> importProducts(
+            User user,
+            HttpServletRequest servletRequest,
+            @RequestParam(value = "resumeFrom", required = false, defaultValue = "0") Integer resumeFrom
+        ) {
+
+        ObjectReader reader = MediaType.parseMediaType(servletRequest.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+            ? CSV_MAPPER.readerFor(CreateProductRequest.class).with(CsvSchema.emptySchema().withHeader())
+            : objectMapper.readerFor(CreateProductRequest.class);
+
+        ProductImportResponse productImportResponse;
+        try (MappingIterator<CreateProductRequest> rows = reader.readValues(servletRequest.getInputStream())) {
+            productImportResponse = productImportService.importProducts(user, rows, resumeFrom);
+        } catch (IOException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed request body");
+        }
+
+        return WebResponse.<ProductImportResponse> builder()
+            .messages("Import product success")
+            .data(productImportResponse)
+            .build();
+    }
+
     @GetMapping(
         path = "/products/{productId}",
         produces = MediaType.APPLICATION_JSON_VALUE
@@ -60,6 +119,25 @@ public class ProductController {
             .build();
     }
 
+    // Takes precedence over search whenever ids is present.
+    @GetMapping(
+        path = "/products",
+        params = "ids",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public WebResponse<MultiGetResponse<ProductResponse>> getAll(
+        User user,
+        @RequestParam(value = "ids") List<String> ids
+    ) {
+
+        MultiGetResponse<ProductResponse> productResponses = productService.getAll(user, ids);
+
+        return WebResponse.<MultiGetResponse<ProductResponse>> builder()
+            .messages("Get product success")
+            .data(productResponses)
+            .build();
+    }
+
     @GetMapping(
         path = "/categories/{categoryId}/products",
         produces = MediaType.APPLICATION_JSON_VALUE
@@ -119,23 +197,75 @@ public class ProductController {
     )
     public WebResponse<List<ProductResponse>> search(
             User user,
+            @RequestParam(value = "q", required = false) String query,
             @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "categoryId", required = false) String categoryId,
             @RequestParam(value = "priceBuy", required = false) Double priceBuy,
+            @RequestParam(value = "priceBuyMax", required = false) Double priceBuyMax,
             @RequestParam(value = "priceSell", required = false) Double priceSell,
+            @RequestParam(value = "priceSellMax", required = false) Double priceSellMax,
             @RequestParam(value = "stock", required = false) Integer stock,
+            @RequestParam(value = "stockMax", required = false) Integer stockMax,
+            @RequestParam(value = "sort", required = false) String sort,
             @RequestParam(value = "page", required = false, defaultValue = "0") Integer page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size
+            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "withTotal", required = false, defaultValue = "true") Boolean withTotal,
+            @RequestParam(value = "approximateTotal", required = false, defaultValue = "false") Boolean approximateTotal
         ) {
 
         SearchProductRequest request = SearchProductRequest.builder()
+            .query(query)
             .name(name)
+            .categoryId(categoryId)
             .priceBuy(priceBuy)
+            .priceBuyMax(priceBuyMax)
             .priceSell(priceSell)
+            .priceSellMax(priceSellMax)
             .stock(stock)
+            .stockMax(stockMax)
+            .sort(sort)
             .page(page)
             .size(size)
+            .cursor(cursor)
             .build();
 
+        if (Objects.nonNull(cursor)) {
+            Window<ProductResponse> productResponses = productService.scroll(user, request);
+
+            return WebResponse.<List<ProductResponse>> builder()
+                .messages("Search product success")
+                .data(productResponses.getContent())
+                .paging(
+                    PagingResponse
+                    .builder()
+                    .size(size)
+                    .nextCursor(CursorCodec.nextCursor(productResponses))
+                    .hasNext(productResponses.hasNext())
+                    .build()
+                )
+                .build();
+        }
+
+        // Full-text results are ranked, the slice mode only knows the created_at order.
+        if (!withTotal && Objects.isNull(query)) {
+            Window<ProductResponse> productResponses = productService.slice(user, request);
+
+            return WebResponse.<List<ProductResponse>> builder()
+                .messages("Search product success")
+                .data(productResponses.getContent())
+                .paging(
+                    PagingResponse
+                    .builder()
+                    .currentPage(page)
+                    .size(size)
+                    .hasNext(productResponses.hasNext())
+                    .approximateTotal(approximateTotal ? productService.approximateTotal(user, request) : null)
+                    .build()
+                )
+                .build();
+        }
+
         Page<ProductResponse> productResponse = productService.search(user, request);
 
         return WebResponse.<List<ProductResponse>> builder()
@@ -0,0 +1,120 @@
+package springboot.restful.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+import springboot.restful.entity.User;
+import springboot.restful.model.AddressResponse;
+import springboot.restful.model.WebResponse;
+import springboot.restful.request.CreateAddressRequest;
+import springboot.restful.request.UpdateAddressRequest;
+import springboot.restful.service.ReactiveAddressService;
+
+// AddressController under /reactive, same requests and responses.
+@RestController
+public class ReactiveAddressController {
+
+    @Autowired
+    private ReactiveAddressService reactiveAddressService;
+
+    @PostMapping(
+        path = "/reactive/contacts/{contactId}/addresses",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<AddressResponse>> create(
+        Mono<User> user,
+        @RequestBody CreateAddressRequest request,
+        @PathVariable(value = "contactId") String contactId
+    ) {
+
+        request.setContactId(contactId);
+
+        return user.flatMap(caller -> reactiveAddressService.create(caller, request))
+            .map(addressResponse -> WebResponse.<AddressResponse> builder()
+                .messages("Create address success")
+                .data(addressResponse)
+                .build());
+    }
+
+    @GetMapping(
+        path = "/reactive/contacts/{contactId}/addresses/{addressId}",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<AddressResponse>> get(
+        Mono<User> user,
+        @PathVariable(value = "contactId") String contactId,
+        @PathVariable(value = "addressId") String addressId
+    ) {
+
+        return user.flatMap(caller -> reactiveAddressService.get(caller, contactId, addressId))
+            .map(addressResponse -> WebResponse.<AddressResponse> builder()
+                .messages("Get address success")
+                .data(addressResponse)
+                .build());
+    }
+
+    @PutMapping(
+        path = "/reactive/contacts/{contactId}/addresses/{addressId}",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<AddressResponse>> update(
+        Mono<User> user,
+        @RequestBody UpdateAddressRequest request,
+        @PathVariable(value = "contactId") String contactId,
+        @PathVariable(value = "addressId") String addressId
+    ) {
+
+        request.setContactId(contactId);
+        request.setAddressId(addressId);
+
+        return user.flatMap(caller -> reactiveAddressService.update(caller, request))
+            .map(addressResponse -> WebResponse.<AddressResponse> builder()
+                .messages("Update address success")
+                .data(addressResponse)
+                .build());
+    }
+
+    @DeleteMapping(
+        path = "/reactive/contacts/{contactId}/addresses/{addressId}",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<String>> delete(
+        Mono<User> user,
+        @PathVariable(value = "contactId") String contactId,
+        @PathVariable(value = "addressId") String addressId
+    ) {
+
+        return user.flatMap(caller -> reactiveAddressService.delete(caller, contactId, addressId))
+            .then(Mono.fromSupplier(() -> WebResponse.<String> builder()
+                .messages("Delete address success")
+                .build()));
+    }
+
+    @GetMapping(
+        path = "/reactive/contacts/{contactId}/addresses",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<List<AddressResponse>>> list(
+        Mono<User> user,
+        @PathVariable(value = "contactId") String contactId
+    ) {
+
+        return user.flatMap(caller -> reactiveAddressService.list(caller, contactId))
+            .map(addressResponse -> WebResponse.<List<AddressResponse>> builder()
+                .messages("Get address success")
+                .data(addressResponse)
+                .build());
+    }
+}
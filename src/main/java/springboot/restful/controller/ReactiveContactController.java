@@ -0,0 +1,122 @@
+package springboot.restful.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+import springboot.restful.entity.User;
+import springboot.restful.model.ContactResponse;
+import springboot.restful.model.PagingResponse;
+import springboot.restful.model.WebResponse;
+import springboot.restful.request.CreateContactRequest;
+import springboot.restful.request.SearchContactRequest;
+import springboot.restful.request.UpdateContactRequest;
+import springboot.restful.service.ReactiveContactService;
+
+/**
+ * {@link ContactController} under {@code /reactive}, same requests and responses. The request thread
+ * is released while the database works and the response is written when the result arrives.
+ */
+@RestController
+public class ReactiveContactController {
+
+    @Autowired
+    private ReactiveContactService reactiveContactService;
+
+    @PostMapping(
+        path = "/reactive/contacts",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<ContactResponse>> create(Mono<User> user, @RequestBody CreateContactRequest request) {
+        return user.flatMap(caller -> reactiveContactService.create(caller, request))
+            .map(contactResponse -> WebResponse.<ContactResponse> builder()
+                .messages("Create contact success")
+                .data(contactResponse)
+                .build());
+    }
+
+    @GetMapping(
+        path = "/reactive/contacts/{contactId}",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<ContactResponse>> get(Mono<User> user, @PathVariable(value = "contactId") String contactId) {
+        return user.flatMap(caller -> reactiveContactService.get(caller, contactId))
+            .map(contactResponse -> WebResponse.<ContactResponse> builder()
+                .messages("Get contact success")
+                .data(contactResponse)
+                .build());
+    }
+
+    @PutMapping(
+        path = "/reactive/contacts/{contactId}",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<ContactResponse>> update(Mono<User> user, @RequestBody UpdateContactRequest request, @PathVariable(value = "contactId") String contactId) {
+        request.setId(contactId);
+
+        return user.flatMap(caller -> reactiveContactService.update(caller, request))
+            .map(contactResponse -> WebResponse.<ContactResponse> builder()
+                .messages("Update contact success")
+                .data(contactResponse)
+                .build());
+    }
+
+    @DeleteMapping(
+        path = "/reactive/contacts/{contactId}",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<String>> delete(Mono<User> user, @PathVariable(value = "contactId") String contactId) {
+        return user.flatMap(caller -> reactiveContactService.delete(caller, contactId))
+            .then(Mono.fromSupplier(() -> WebResponse.<String> builder()
+                .messages("Delete contact success")
+                .build()));
+    }
+
+    @GetMapping(
+        path = "/reactive/contacts",
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public Mono<WebResponse<List<ContactResponse>>> search(
+            Mono<User> user,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "email", required = false) String email,
+            @RequestParam(value = "phone", required = false) String phone,
+            @RequestParam(value = "page", required = false, defaultValue = "0") Integer page,
+            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size
+        ) {
+
+        SearchContactRequest request = SearchContactRequest.builder()
+            .name(name)
+            .email(email)
+            .phone(phone)
+            .page(page)
+            .size(size)
+            .build();
+
+        return user.flatMap(caller -> reactiveContactService.search(caller, request))
+            .map(contactResponse -> WebResponse.<List<ContactResponse>> builder()
+                .messages("Search contact success")
+                .data(contactResponse.getContent())
+                .paging(
+                    PagingResponse
+                    .builder()
+                    .currentPage(contactResponse.getNumber())
+                    .totalPage(contactResponse.getTotalPages())
+                    .size(contactResponse.getSize())
+                    .build()
+                )
+                .build());
+    }
+}
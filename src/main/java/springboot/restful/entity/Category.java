@@ -3,8 +3,13 @@ package springboot.restful.entity;
 import java.sql.Timestamp;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -12,6 +17,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import springboot.restful.JpaConfiguration;
+import springboot.restful.cache.CategoryCacheListener;
 
 @Getter
 @Setter
@@ -19,6 +26,9 @@ import lombok.Setter;
 @NoArgsConstructor
 @Entity
 @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = JpaConfiguration.CATEGORY_REGION)
+@EntityListeners(CategoryCacheListener.class)
 
 public class Category {
 
@@ -0,0 +1,20 @@
+package springboot.restful.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 401 thrown on the authentication hot path. Rejections are routine there, so the
+ * stack trace is never captured.
+ */
+public class UnauthorizedException extends ResponseStatusException {
+
+    public UnauthorizedException() {
+        super(HttpStatus.UNAUTHORIZED, "Unauthorized");
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,18 @@
+package springboot.restful.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MultiGetResponse<T> {
+
+    private List<T> items;
+    private List<String> missing;
+}
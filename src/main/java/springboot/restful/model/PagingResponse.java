@@ -1,5 +1,7 @@
 package springboot.restful.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,9 +11,13 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagingResponse {
 
     private Integer currentPage;
     private Integer totalPage;
     private Integer size;
+    private String nextCursor;
+    private Boolean hasNext;
+    private Long approximateTotal;
 }
@@ -0,0 +1,34 @@
+package springboot.restful.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportResponse {
+
+    public enum Action {
+        // Every row was read
+        DONE,
+        // A chunk failed on a transient database error, send the same file again from resumeFrom
+        RESUME,
+        // The file needs fixing first, then it can be sent again from resumeFrom
+        STOP
+    }
+
+    private Action action;
+    private Integer resumeFrom;
+    private Integer rows;
+    private Integer inserted;
+    private Integer failed;
+    private List<BulkItemResponse> errors;
+}
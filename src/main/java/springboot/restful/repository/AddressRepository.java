@@ -1,10 +1,12 @@
 package springboot.restful.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import springboot.restful.entity.Address;
@@ -16,4 +18,13 @@ public interface AddressRepository extends JpaRepository<Address, String>, JpaSp
     Optional<Address> findByContactAndId(Contact contact, String id);
 
     List<Address> findAllByContact(Contact contact);
+
+    List<Address> findAllByContactIn(Collection<Contact> contacts);
+
+    // Ownership is checked in the same statement, the contact and its user are fetched with the address.
+    @Query("SELECT a FROM Address a JOIN FETCH a.contact c JOIN FETCH c.user u WHERE a.id = :addressId AND c.id = :contactId AND u.id = :userId")
+    Optional<Address> findOwned(String userId, String contactId, String addressId);
+
+    @Query("SELECT a FROM Address a JOIN FETCH a.contact c JOIN FETCH c.user u WHERE c.id = :contactId AND u.id = :userId")
+    List<Address> findAllOwned(String userId, String contactId);
 }
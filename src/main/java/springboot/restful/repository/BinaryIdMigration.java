@@ -0,0 +1,231 @@
+package springboot.restful.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves a {@code database.sql} schema with VARCHAR ids to the BINARY(16) layout of
+ * {@code database-binary.sql} in three phases:
+ * <ul>
+ * <li>{@code prepare} adds a {@code <column>_bin} shadow column next to every id and foreign key
+ * column, and triggers that fill it on insert and update,</li>
+ * <li>{@code backfill} fills the shadow columns of existing rows in short chunks in primary key
+ * order, then {@link #verify()} checks every row,</li>
+ * <li>{@code cutover} swaps the shadow columns in and rebuilds the keys, indexes and foreign keys.</li>
+ * </ul>
+ * The first two run while the application keeps serving in {@code app.id.storage=string}; only the
+ * cutover needs writes stopped, after which the application starts with {@code app.id.storage=binary}.
+ */
+@Slf4j
+@Component
+public class BinaryIdMigration {
+
+    // Parents before children; every table has an id primary key to walk the backfill on.
+    private static final Map<String, List<String>> COLUMNS = new LinkedHashMap<>();
+
+    // Derived from contacts, emptied at cutover and rebuilt by ContactTrigramIndexer.
+    private static final Map<String, List<String>> DERIVED = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("users", List.of("id"));
+        COLUMNS.put("contacts", List.of("id", "user_id"));
+        COLUMNS.put("addresses", List.of("id", "contact_id"));
+        COLUMNS.put("categories", List.of("id"));
+        COLUMNS.put("products", List.of("id", "category_id"));
+
+        DERIVED.put("contact_trigrams", List.of("user_id", "contact_id"));
+        DERIVED.put("contact_trigram_pending", List.of("user_id", "contact_id"));
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.id.migration-chunk-size:1000}")
+    private int chunkSize;
+
+    public void run(String phase) {
+        switch (phase) {
+            case "prepare" -> prepare();
+            case "backfill" -> backfill();
+            case "cutover" -> cutover();
+            default -> throw new IllegalArgumentException("app.id.migration must be prepare, backfill or cutover, not " + phase);
+        }
+    }
+
+    public void prepare() {
+        COLUMNS.forEach((table, columns) -> {
+            List<String> missing = columns.stream().filter(column -> !columnExists(table, column + "_bin")).toList();
+            if (!missing.isEmpty()) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " "
+                    + missing.stream().map(column -> "ADD COLUMN " + column + "_bin BINARY(16) NULL").collect(Collectors.joining(", ")));
+            }
+
+            String assignments = columns.stream()
+                .map(column -> "NEW." + column + "_bin = " + toBinary("NEW." + column))
+                .collect(Collectors.joining(", "));
+            for (String event : List.of("INSERT", "UPDATE")) {
+                String trigger = trigger(table, event);
+                jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + trigger);
+                jdbcTemplate.execute("CREATE TRIGGER " + trigger + " BEFORE " + event + " ON " + table + " FOR EACH ROW SET " + assignments);
+            }
+            log.info("Binary id migration prepared {}", table);
+        });
+    }
+
+    // One short statement per chunk of primary keys, rows written meanwhile are kept current by the triggers.
+    public void backfill() {
+        COLUMNS.forEach((table, columns) -> {
+            String assignments = columns.stream()
+                .map(column -> column + "_bin = " + toBinary(column))
+                .collect(Collectors.joining(", "));
+
+            String last = "";
+            long rows = 0;
+            while (true) {
+                List<String> bound = jdbcTemplate.queryForList(
+                    "SELECT id FROM " + table + " WHERE id > ? ORDER BY id LIMIT 1 OFFSET ?", String.class, last, chunkSize - 1);
+                if (bound.isEmpty()) {
+                    rows += jdbcTemplate.update("UPDATE " + table + " SET " + assignments + " WHERE id > ?", last);
+                    break;
+                }
+
+                rows += jdbcTemplate.update("UPDATE " + table + " SET " + assignments + " WHERE id > ? AND id <= ?", last, bound.get(0));
+                last = bound.get(0);
+            }
+            log.info("Binary id migration backfilled {} rows of {}", rows, table);
+        });
+
+        List<String> problems = verify();
+        if (!problems.isEmpty()) {
+            log.warn("Binary id migration cannot cut over yet: {}", problems);
+        }
+    }
+
+    /**
+     * Columns with rows whose shadow value is missing or does not round-trip, e.g. ids that are not
+     * UUIDs. Those rows have to be fixed by hand before the cutover.
+     */
+    public List<String> verify() {
+        List<String> problems = new ArrayList<>();
+        COLUMNS.forEach((table, columns) -> {
+            for (String column : columns) {
+                long count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + table + " WHERE " + column + "_bin IS NULL OR LENGTH(" + column + ") <> 36"
+                        + " OR LOWER(HEX(" + column + "_bin)) <> LOWER(REPLACE(" + column + ", '-', ''))",
+                    Long.class);
+                if (count > 0) {
+                    problems.add(table + "." + column + ": " + count + " rows");
+                }
+            }
+        });
+        return problems;
+    }
+
+    /**
+     * Needs writes stopped: the tables are rebuilt and the application has to come back with
+     * {@code app.id.storage=binary}. Take a backup first, a failure halfway leaves the schema mixed.
+     */
+    public void cutover() {
+        List<String> problems = verify();
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Binary id migration is not backfilled: " + problems);
+        }
+
+        COLUMNS.keySet().forEach(table -> {
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + trigger(table, "INSERT"));
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + trigger(table, "UPDATE"));
+        });
+
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+            "SELECT k.table_name, k.constraint_name, k.column_name, k.referenced_table_name, k.referenced_column_name, r.delete_rule, r.update_rule"
+                + " FROM information_schema.key_column_usage k"
+                + " JOIN information_schema.referential_constraints r"
+                + " ON r.constraint_schema = k.constraint_schema AND r.constraint_name = k.constraint_name AND r.table_name = k.table_name"
+                + " WHERE k.table_schema = DATABASE() AND k.referenced_table_name IS NOT NULL");
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + foreignKey.get("table_name") + " DROP FOREIGN KEY " + foreignKey.get("constraint_name"));
+        }
+
+        DERIVED.forEach((table, columns) -> {
+            jdbcTemplate.execute("TRUNCATE TABLE " + table);
+            jdbcTemplate.execute("ALTER TABLE " + table + " "
+                + columns.stream().map(column -> "MODIFY " + column + " BINARY(16) NOT NULL").collect(Collectors.joining(", ")));
+        });
+
+        COLUMNS.forEach(this::swapColumns);
+
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + foreignKey.get("table_name")
+                + " ADD CONSTRAINT " + foreignKey.get("constraint_name")
+                + " FOREIGN KEY (" + foreignKey.get("column_name") + ")"
+                + " REFERENCES " + foreignKey.get("referenced_table_name") + " (" + foreignKey.get("referenced_column_name") + ")"
+                + " ON DELETE " + foreignKey.get("delete_rule") + " ON UPDATE " + foreignKey.get("update_rule"));
+        }
+
+        jdbcTemplate.update("INSERT INTO contact_trigram_pending (user_id, contact_id) SELECT user_id, id FROM contacts");
+        log.info("Binary id migration cut over, contact trigrams are being rebuilt");
+    }
+
+    // Indexes over a swapped column are dropped with it and added again on the new column, in the same order.
+    private void swapColumns(String table, List<String> columns) {
+        Map<String, List<Map<String, Object>>> indexes = jdbcTemplate.queryForList(
+            "SELECT index_name, column_name, non_unique FROM information_schema.statistics"
+                + " WHERE table_schema = DATABASE() AND table_name = ? AND index_type = 'BTREE' ORDER BY index_name, seq_in_index",
+            table
+        ).stream().collect(Collectors.groupingBy(row -> (String) row.get("index_name"), LinkedHashMap::new, Collectors.toList()));
+        indexes.values().removeIf(index -> index.stream().noneMatch(row -> columns.contains((String) row.get("column_name"))));
+
+        List<String> ordered = jdbcTemplate.queryForList(
+            "SELECT column_name FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? ORDER BY ordinal_position",
+            String.class, table);
+
+        List<String> drops = new ArrayList<>();
+        List<String> adds = new ArrayList<>();
+        indexes.forEach((name, index) -> {
+            String keyColumns = index.stream().map(row -> (String) row.get("column_name")).collect(Collectors.joining(", "));
+            if (name.equals("PRIMARY")) {
+                drops.add("DROP PRIMARY KEY");
+                adds.add("ADD PRIMARY KEY (" + keyColumns + ")");
+            } else {
+                boolean unique = ((Number) index.get(0).get("non_unique")).intValue() == 0;
+                drops.add("DROP INDEX " + name);
+                adds.add("ADD " + (unique ? "UNIQUE " : "") + "INDEX " + name + " (" + keyColumns + ")");
+            }
+        });
+
+        for (String column : columns) {
+            int position = ordered.indexOf(column);
+            drops.add("DROP COLUMN " + column);
+            adds.add(0, "CHANGE COLUMN " + column + "_bin " + column + " BINARY(16) NOT NULL "
+                + (position == 0 ? "FIRST" : "AFTER " + ordered.get(position - 1)));
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " " + String.join(", ", drops));
+        jdbcTemplate.execute("ALTER TABLE " + table + " " + String.join(", ", adds));
+        log.info("Binary id migration swapped {} of {}", columns, table);
+    }
+
+    private boolean columnExists(String table, String column) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+            Long.class, table, column) > 0;
+    }
+
+    private static String toBinary(String column) {
+        return "UNHEX(REPLACE(" + column + ", '-', ''))";
+    }
+
+    private static String trigger(String table, String event) {
+        return table + "_binary_ids_" + event.toLowerCase();
+    }
+}
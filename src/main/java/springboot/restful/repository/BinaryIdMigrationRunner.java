@@ -0,0 +1,34 @@
+package springboot.restful.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs one phase of {@link BinaryIdMigration} and exits:
+ * {@code java -jar app.jar --spring.main.web-application-type=none --app.id.migration=prepare}
+ */
+@Component
+@ConditionalOnProperty(name = "app.id.migration")
+public class BinaryIdMigrationRunner implements ApplicationRunner {
+
+    @Autowired
+    private BinaryIdMigration binaryIdMigration;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${app.id.migration}")
+    private String phase;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        binaryIdMigration.run(phase);
+        System.exit(SpringApplication.exit(context));
+    }
+}
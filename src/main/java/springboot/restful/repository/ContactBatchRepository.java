@@ -0,0 +1,33 @@
+package springboot.restful.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import springboot.restful.entity.Contact;
+
+/**
+ * Plain JDBC batch inserts for bulk imports. Entity listeners do not run here, callers keep
+ * {@link ContactTrigramRepository} and the suggest index up to date themselves.
+ */
+@Repository
+public class ContactBatchRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    public void insertAll(List<Contact> contacts) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO contacts (id, firstname, lastname, email, phone, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            contacts.stream().map(contact -> new Object[] {
+                idStorage.bind(contact.getId()), contact.getFirstname(), contact.getLastname(), contact.getEmail(), contact.getPhone(),
+                idStorage.bind(contact.getUser().getId()), contact.getCreatedAt(), contact.getUpdatedAt()
+            }).toList()
+        );
+    }
+}
@@ -0,0 +1,110 @@
+package springboot.restful.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PostConstruct;
+import springboot.restful.entity.Address;
+import springboot.restful.entity.Contact;
+
+/**
+ * Reads every contact of a user with its addresses in a single forward-only query. The MySQL driver
+ * only streams rows instead of buffering the whole result when the fetch size is
+ * {@link Integer#MIN_VALUE}; while the result is open the connection cannot run other statements.
+ */
+@Repository
+public class ContactExportRepository {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Hands each contact, with its addresses, to the consumer as soon as its last row is read. The
+     * rows of one contact are adjacent because the order is on the contact key alone.
+     */
+    public void streamByUserId(String userId, Consumer<Contact> consumer) {
+        ContactRowHandler handler = new ContactRowHandler(consumer);
+        jdbcTemplate.query(
+            "SELECT c.id, c.firstname, c.lastname, c.email, c.phone, c.created_at, c.updated_at,"
+                + " a.id AS address_id, a.street, a.city, a.province, a.country, a.postal_code,"
+                + " a.created_at AS address_created_at, a.updated_at AS address_updated_at"
+                + " FROM contacts c LEFT JOIN addresses a ON a.contact_id = c.id"
+                + " WHERE c.user_id = ?"
+                + " ORDER BY c.created_at, c.id",
+            handler,
+            idStorage.bind(userId)
+        );
+        handler.emit();
+    }
+
+    private class ContactRowHandler implements RowCallbackHandler {
+
+        private final Consumer<Contact> consumer;
+
+        private Contact current;
+
+        ContactRowHandler(Consumer<Contact> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            String id = idStorage.read(resultSet, "id");
+            if (Objects.isNull(current) || !current.getId().equals(id)) {
+                emit();
+
+                current = new Contact();
+                current.setId(id);
+                current.setFirstname(resultSet.getString("firstname"));
+                current.setLastname(resultSet.getString("lastname"));
+                current.setEmail(resultSet.getString("email"));
+                current.setPhone(resultSet.getString("phone"));
+                current.setCreatedAt(resultSet.getTimestamp("created_at"));
+                current.setUpdatedAt(resultSet.getTimestamp("updated_at"));
+                current.setAddresses(new ArrayList<>());
+            }
+
+            String addressId = idStorage.read(resultSet, "address_id");
+            if (Objects.nonNull(addressId)) {
+                Address address = new Address();
+                address.setId(addressId);
+                address.setStreet(resultSet.getString("street"));
+                address.setCity(resultSet.getString("city"));
+                address.setProvince(resultSet.getString("province"));
+                address.setCountry(resultSet.getString("country"));
+                address.setPostalCode(resultSet.getString("postal_code"));
+                address.setCreatedAt(resultSet.getTimestamp("address_created_at"));
+                address.setUpdatedAt(resultSet.getTimestamp("address_updated_at"));
+                current.getAddresses().add(address);
+            }
+        }
+
+        void emit() {
+            if (Objects.nonNull(current)) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
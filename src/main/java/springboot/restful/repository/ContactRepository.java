@@ -1,9 +1,12 @@
 package springboot.restful.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import springboot.restful.entity.Contact;
@@ -13,4 +16,15 @@ import springboot.restful.entity.User;
 public interface ContactRepository extends JpaRepository<Contact, String>, JpaSpecificationExecutor<Contact> {
 
     Optional<Contact> findByUserAndId(User user, String id);
+
+    List<Contact> findAllByUserId(String userId);
+
+    // findByUserAndId loads the user with a second statement, users are joined on id rather than their primary key.
+    @Query("SELECT c FROM Contact c JOIN FETCH c.user u WHERE c.id = :id AND u.id = :userId")
+    Optional<Contact> findOwned(String userId, String id);
+
+    @Query("SELECT c FROM Contact c JOIN FETCH c.user u WHERE c.id IN :ids AND u.id = :userId")
+    List<Contact> findAllOwned(String userId, Collection<String> ids);
+
+    boolean existsByUserIdAndId(String userId, String id);
 }
@@ -0,0 +1,76 @@
+package springboot.restful.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.User;
+
+/**
+ * Builds the trigrams of bulk inserted contacts in the background. Pending rows are claimed with
+ * {@code SKIP LOCKED}, so several instances can drain the queue side by side.
+ */
+@Component
+public class ContactTrigramIndexer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ContactTrigramRepository contactTrigramRepository;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    @Value("${app.contact-search.pending-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.contact-search.pending-interval:1s}")
+    public void indexPending() {
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> indexBatch()))) {
+            // Keep going until the queue is empty
+        }
+    }
+
+    private boolean indexBatch() {
+        // Pending rows are claimed together with their contacts, skipping rows held by a delete or by
+        // another indexer, so every instance walks past the others to a batch of its own.
+        List<Contact> contacts = jdbcTemplate.query(
+            "SELECT c.id, c.firstname, c.lastname, c.email, c.phone, c.user_id FROM contact_trigram_pending p "
+                + "JOIN contacts c ON c.id = p.contact_id ORDER BY p.contact_id LIMIT ? FOR UPDATE SKIP LOCKED",
+            (resultSet, rowNum) -> {
+                User user = new User();
+                user.setId(idStorage.read(resultSet, "user_id"));
+
+                Contact contact = new Contact();
+                contact.setId(idStorage.read(resultSet, "id"));
+                contact.setFirstname(resultSet.getString("firstname"));
+                contact.setLastname(resultSet.getString("lastname"));
+                contact.setEmail(resultSet.getString("email"));
+                contact.setPhone(resultSet.getString("phone"));
+                contact.setUser(user);
+                return contact;
+            },
+            batchSize
+        );
+        if (contacts.isEmpty()) {
+            return false;
+        }
+
+        contactTrigramRepository.index(contacts);
+        jdbcTemplate.batchUpdate(
+            "DELETE FROM contact_trigram_pending WHERE contact_id = ?",
+            contacts.stream().map(contact -> new Object[] { idStorage.bind(contact.getId()) }).toList()
+        );
+        return contacts.size() == batchSize;
+    }
+}
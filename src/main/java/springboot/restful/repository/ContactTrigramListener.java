@@ -0,0 +1,36 @@
+package springboot.restful.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import springboot.restful.entity.Contact;
+
+/**
+ * Keeps {@code contact_trigrams} in step with contact writes. It runs during the flush, so the index
+ * rows commit or roll back together with the contact.
+ */
+@Component
+public class ContactTrigramListener {
+
+    @Autowired
+    private ContactTrigramRepository contactTrigramRepository;
+
+    @PostPersist
+    public void index(Contact contact) {
+        contactTrigramRepository.index(contact);
+    }
+
+    @PostUpdate
+    public void reindex(Contact contact) {
+        contactTrigramRepository.remove(contact.getId());
+        contactTrigramRepository.index(contact);
+    }
+
+    @PostRemove
+    public void remove(Contact contact) {
+        contactTrigramRepository.remove(contact.getId());
+    }
+}
@@ -0,0 +1,182 @@
+package springboot.restful.repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import springboot.restful.entity.Contact;
+
+/**
+ * Trigram index over the searchable contact fields, stored in {@code contact_trigrams}. It only
+ * narrows the candidate ids, the LIKE predicates still decide the result, so it has to return a
+ * superset of every row the collation could match. Values are folded to lower-case ASCII without
+ * accents; a value that does not fold to plain ASCII is stored as an empty trigram and is always a
+ * candidate for its field. Contacts listed in {@code contact_trigram_pending} have no trigrams yet
+ * and are always candidates too.
+ */
+@Repository
+public class ContactTrigramRepository {
+
+    public enum Field {
+        FIRSTNAME, LASTNAME, EMAIL, PHONE
+    }
+
+    private static final String UNINDEXED = "";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    @Value("${app.contact-search.trigram-index:true}")
+    private boolean enabled;
+
+    @Value("${app.contact-search.max-candidates:5000}")
+    private int maxCandidates;
+
+    public void index(Contact contact) {
+        index(List.of(contact));
+    }
+
+    public void index(List<Contact> contacts) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Contact contact : contacts) {
+            Object userId = idStorage.bind(contact.getUser().getId());
+            Object contactId = idStorage.bind(contact.getId());
+            addRows(rows, userId, contactId, Field.FIRSTNAME, contact.getFirstname());
+            addRows(rows, userId, contactId, Field.LASTNAME, contact.getLastname());
+            addRows(rows, userId, contactId, Field.EMAIL, contact.getEmail());
+            addRows(rows, userId, contactId, Field.PHONE, contact.getPhone());
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO contact_trigrams (user_id, field, trigram, contact_id) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    public void remove(String contactId) {
+        jdbcTemplate.update("DELETE FROM contact_trigrams WHERE contact_id = ?", idStorage.bind(contactId));
+        jdbcTemplate.update("DELETE FROM contact_trigram_pending WHERE contact_id = ?", idStorage.bind(contactId));
+    }
+
+    // One row per contact instead of one per trigram, ContactTrigramIndexer builds the trigrams later.
+    public void indexLater(List<Contact> contacts) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO contact_trigram_pending (user_id, contact_id) VALUES (?, ?)",
+            contacts.stream().map(contact -> new Object[] { idStorage.bind(contact.getUser().getId()), idStorage.bind(contact.getId()) }).toList()
+        );
+    }
+
+    /**
+     * Ids of the user's contacts where one of the fields may be {@code LIKE '%term%'}. Empty when the
+     * term is too short or too common for the index to help, the caller then has to scan.
+     */
+    public Optional<Set<String>> candidates(String userId, String term, Field... fields) {
+        Set<String> trigrams = termTrigrams(term);
+        if (!enabled || trigrams.isEmpty()) {
+            return Optional.empty();
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("userId", idStorage.bind(userId))
+            .addValue("fields", Arrays.stream(fields).map(Field::ordinal).toList())
+            .addValue("trigrams", trigrams)
+            .addValue("count", trigrams.size())
+            .addValue("unindexed", UNINDEXED)
+            .addValue("limit", maxCandidates + 1);
+
+        List<String> ids = namedParameterJdbcTemplate.query(
+            "SELECT contact_id FROM contact_trigrams"
+                + " WHERE user_id = :userId AND field IN (:fields) AND trigram IN (:trigrams)"
+                + " GROUP BY contact_id, field HAVING COUNT(*) = :count"
+                + " UNION"
+                + " SELECT contact_id FROM contact_trigrams"
+                + " WHERE user_id = :userId AND field IN (:fields) AND trigram = :unindexed"
+                + " UNION"
+                + " SELECT contact_id FROM contact_trigram_pending WHERE user_id = :userId"
+                + " LIMIT :limit",
+            parameters,
+            (resultSet, rowNum) -> idStorage.read(resultSet, "contact_id")
+        );
+
+        if (ids.size() > maxCandidates) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new HashSet<>(ids));
+    }
+
+    private static void addRows(List<Object[]> rows, Object userId, Object contactId, Field field, String value) {
+        if (Objects.isNull(value)) {
+            return;
+        }
+
+        String folded = fold(value);
+        if (Objects.isNull(folded)) {
+            rows.add(new Object[] { userId, field.ordinal(), UNINDEXED, contactId });
+            return;
+        }
+
+        for (String trigram : trigrams(folded)) {
+            rows.add(new Object[] { userId, field.ordinal(), trigram, contactId });
+        }
+    }
+
+    // '%' and '_' are LIKE wildcards, only the literal runs between them must appear in a match.
+    // Whether '\' escapes the next character depends on how the dialect renders LIKE, so terms
+    // holding one are left to the scan rather than guessed at.
+    private static Set<String> termTrigrams(String term) {
+        String folded = fold(term);
+        if (Objects.isNull(folded) || folded.indexOf('\\') >= 0) {
+            return Set.of();
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+        for (String segment : folded.split("[%_]")) {
+            result.addAll(trigrams(segment));
+        }
+        return result;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            result.add(value.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Lower-case, accent-free form of the value, or null when something other than printable
+     * ASCII is left, since collations may equate such characters with longer or shorter sequences.
+     */
+    static String fold(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT);
+
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                return null;
+            }
+        }
+        return folded;
+    }
+}
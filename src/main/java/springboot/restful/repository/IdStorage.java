@@ -0,0 +1,64 @@
+package springboot.restful.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import springboot.restful.entity.BinaryIdType;
+
+/**
+ * Id conversion for the plain JDBC and R2DBC repositories, which the JPA mapping in
+ * {@code META-INF/binary-ids.orm.xml} does not reach. With {@code app.id.storage=string} ids are
+ * bound and read as they are, with {@code binary} as the 16 bytes of the UUID.
+ */
+@Component
+public class IdStorage {
+
+    // Never equal to a BINARY(16) value, so a malformed id matches nothing instead of binding NULL.
+    private static final byte[] NO_MATCH = new byte[0];
+
+    @Value("${app.id.storage:string}")
+    private String storage;
+
+    private boolean binary;
+
+    @PostConstruct
+    void init() {
+        if (!storage.equals("string") && !storage.equals("binary")) {
+            throw new IllegalStateException("app.id.storage must be string or binary, not " + storage);
+        }
+        binary = storage.equals("binary");
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public Object bind(String id) {
+        if (!binary || Objects.isNull(id)) {
+            return id;
+        }
+
+        byte[] bytes = BinaryIdType.toBytes(id);
+        return Objects.isNull(bytes) ? NO_MATCH : bytes;
+    }
+
+    public List<Object> bindAll(Collection<String> ids) {
+        return ids.stream().map(this::bind).toList();
+    }
+
+    public String read(ResultSet resultSet, String column) throws SQLException {
+        return binary ? BinaryIdType.toString(resultSet.getBytes(column)) : resultSet.getString(column);
+    }
+
+    public String read(Readable row, String column) {
+        return binary ? BinaryIdType.toString(row.get(column, byte[].class)) : row.get(column, String.class);
+    }
+}
@@ -0,0 +1,53 @@
+package springboot.restful.repository;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManagerFactory;
+import springboot.restful.entity.Product;
+
+@Repository
+public class ProductBatchRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public void insertAll(List<Product> products) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO products (id, name, price_buy, price_sell, stock, description, category_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            products.stream().map(product -> new Object[] {
+                idStorage.bind(product.getId()), product.getName(), product.getPriceBuy(), product.getPriceSell(), product.getStock(),
+                product.getDescription(), idStorage.bind(product.getCategory().getId()), product.getCreatedAt(), product.getUpdatedAt()
+            }).toList()
+        );
+
+        // Hibernate does not see these inserts, cached product lists would miss the new rows.
+        afterCommit(() -> entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -2,15 +2,47 @@ package springboot.restful.repository;
 
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import springboot.restful.entity.Category;
 import springboot.restful.entity.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, String>, JpaSpecificationExecutor<Product> {
 
+    // Results are invalidated whenever Hibernate writes to products; JDBC writers evict the region themselves.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Product> findAllByCategory(Category category);
+
+    String FULL_TEXT_FILTER = " WHERE MATCH (p.name, p.description) AGAINST (:query IN NATURAL LANGUAGE MODE)"
+        + " AND (:name IS NULL OR p.name LIKE CONCAT('%', :name, '%'))"
+        + " AND (:categoryId IS NULL OR p.category_id = :categoryId)"
+        + " AND (:priceBuy IS NULL OR p.price_buy >= :priceBuy)"
+        + " AND (:priceBuyMax IS NULL OR p.price_buy <= :priceBuyMax)"
+        + " AND (:priceSell IS NULL OR p.price_sell >= :priceSell)"
+        + " AND (:priceSellMax IS NULL OR p.price_sell <= :priceSellMax)"
+        + " AND (:stock IS NULL OR p.stock >= :stock)"
+        + " AND (:stockMax IS NULL OR p.stock <= :stockMax)";
+
+    // Served by the ft_products_name_description FULLTEXT index, best match first. Native, so the
+    // category id has to be bound through IdStorage.
+    @Query(
+        value = "SELECT p.* FROM products p" + FULL_TEXT_FILTER
+            + " ORDER BY MATCH (p.name, p.description) AGAINST (:query IN NATURAL LANGUAGE MODE) DESC, p.id",
+        countQuery = "SELECT COUNT(*) FROM products p" + FULL_TEXT_FILTER,
+        nativeQuery = true
+    )
+    Page<Product> searchFullText(
+        String query, String name, Object categoryId,
+        Double priceBuy, Double priceBuyMax, Double priceSell, Double priceSellMax, Integer stock, Integer stockMax,
+        Pageable pageable
+    );
 }
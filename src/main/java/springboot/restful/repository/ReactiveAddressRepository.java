@@ -0,0 +1,92 @@
+package springboot.restful.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import springboot.restful.entity.Address;
+
+import static springboot.restful.repository.ReactiveContactRepository.bindNullable;
+import static springboot.restful.repository.ReactiveContactRepository.toLocalDateTime;
+import static springboot.restful.repository.ReactiveContactRepository.toTimestamp;
+
+// The address queries of AddressRepository over R2DBC.
+@Repository
+public class ReactiveAddressRepository {
+
+    private static final String COLUMNS = "id, street, city, province, country, postal_code, contact_id, created_at, updated_at";
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    public Mono<Address> findByContactIdAndId(String contactId, String id) {
+        return reactiveDatabaseClient.sql("SELECT " + COLUMNS + " FROM addresses WHERE contact_id = :contactId AND id = :id")
+            .bind("contactId", idStorage.bind(contactId))
+            .bind("id", idStorage.bind(id))
+            .map(this::toAddress)
+            .one();
+    }
+
+    public Flux<Address> findAllByContactId(String contactId) {
+        return reactiveDatabaseClient.sql("SELECT " + COLUMNS + " FROM addresses WHERE contact_id = :contactId")
+            .bind("contactId", idStorage.bind(contactId))
+            .map(this::toAddress)
+            .all();
+    }
+
+    public Mono<Void> insert(Address address) {
+        GenericExecuteSpec spec = reactiveDatabaseClient.sql("INSERT INTO addresses (" + COLUMNS + ")"
+            + " VALUES (:id, :street, :city, :province, :country, :postalCode, :contactId, :createdAt, :updatedAt)");
+
+        return bindFields(spec, address)
+            .bind("createdAt", toLocalDateTime(address.getCreatedAt()))
+            .then();
+    }
+
+    public Mono<Void> update(Address address) {
+        GenericExecuteSpec spec = reactiveDatabaseClient.sql("UPDATE addresses SET street = :street, city = :city, province = :province,"
+            + " country = :country, postal_code = :postalCode, updated_at = :updatedAt WHERE id = :id AND contact_id = :contactId");
+
+        return bindFields(spec, address).then();
+    }
+
+    public Mono<Void> delete(String contactId, String id) {
+        return reactiveDatabaseClient.sql("DELETE FROM addresses WHERE id = :id AND contact_id = :contactId")
+            .bind("id", idStorage.bind(id))
+            .bind("contactId", idStorage.bind(contactId))
+            .then();
+    }
+
+    private GenericExecuteSpec bindFields(GenericExecuteSpec spec, Address address) {
+        spec = spec.bind("id", idStorage.bind(address.getId()))
+            .bind("contactId", idStorage.bind(address.getContact().getId()))
+            .bind("country", address.getCountry())
+            .bind("postalCode", address.getPostalCode())
+            .bind("updatedAt", toLocalDateTime(address.getUpdatedAt()));
+        spec = bindNullable(spec, "street", address.getStreet());
+        spec = bindNullable(spec, "city", address.getCity());
+        return bindNullable(spec, "province", address.getProvince());
+    }
+
+    private Address toAddress(Readable row) {
+        Address address = new Address();
+        address.setId(idStorage.read(row, "id"));
+        address.setStreet(row.get("street", String.class));
+        address.setCity(row.get("city", String.class));
+        address.setProvince(row.get("province", String.class));
+        address.setCountry(row.get("country", String.class));
+        address.setPostalCode(row.get("postal_code", String.class));
+        address.setCreatedAt(toTimestamp(row.get("created_at", LocalDateTime.class)));
+        address.setUpdatedAt(toTimestamp(row.get("updated_at", LocalDateTime.class)));
+        return address;
+    }
+}
@@ -0,0 +1,155 @@
+package springboot.restful.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import springboot.restful.entity.Contact;
+
+/**
+ * The contact queries of {@code ContactRepository} over R2DBC. Writes bypass the JPA entity
+ * listeners, so the trigram index is kept current here: changed contacts are queued in
+ * {@code contact_trigram_pending}, which keeps them searchable until {@link ContactTrigramIndexer}
+ * has rebuilt their trigrams.
+ */
+@Repository
+public class ReactiveContactRepository {
+
+    private static final String COLUMNS = "id, firstname, lastname, email, phone, user_id, created_at, updated_at";
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    public Mono<Contact> findByUserIdAndId(String userId, String id) {
+        return reactiveDatabaseClient.sql("SELECT " + COLUMNS + " FROM contacts WHERE user_id = :userId AND id = :id")
+            .bind("userId", idStorage.bind(userId))
+            .bind("id", idStorage.bind(id))
+            .map(this::toContact)
+            .one();
+    }
+
+    public Flux<Contact> search(String userId, String name, String email, String phone, int offset, int limit) {
+        return filter(reactiveDatabaseClient.sql("SELECT " + COLUMNS + " FROM contacts" + where(name, email, phone) + " ORDER BY id LIMIT :limit OFFSET :offset"),
+                userId, name, email, phone)
+            .bind("limit", limit)
+            .bind("offset", offset)
+            .map(this::toContact)
+            .all();
+    }
+
+    public Mono<Long> count(String userId, String name, String email, String phone) {
+        return filter(reactiveDatabaseClient.sql("SELECT COUNT(*) FROM contacts" + where(name, email, phone)), userId, name, email, phone)
+            .map(row -> row.get(0, Long.class))
+            .one();
+    }
+
+    public Mono<Void> insert(Contact contact) {
+        GenericExecuteSpec spec = reactiveDatabaseClient.sql("INSERT INTO contacts (" + COLUMNS + ")"
+            + " VALUES (:id, :firstname, :lastname, :email, :phone, :userId, :createdAt, :updatedAt)");
+
+        return bindFields(spec, contact)
+            .bind("createdAt", toLocalDateTime(contact.getCreatedAt()))
+            .then()
+            .then(indexLater(contact));
+    }
+
+    public Mono<Void> update(Contact contact) {
+        GenericExecuteSpec spec = reactiveDatabaseClient.sql("UPDATE contacts SET firstname = :firstname, lastname = :lastname,"
+            + " email = :email, phone = :phone, updated_at = :updatedAt WHERE id = :id AND user_id = :userId");
+
+        return bindFields(spec, contact)
+            .then()
+            .then(reactiveDatabaseClient.sql("DELETE FROM contact_trigrams WHERE contact_id = :id")
+                .bind("id", idStorage.bind(contact.getId()))
+                .then())
+            .then(indexLater(contact));
+    }
+
+    // The trigram and pending rows go with the contact through ON DELETE CASCADE.
+    public Mono<Void> delete(String userId, String id) {
+        return reactiveDatabaseClient.sql("DELETE FROM contacts WHERE id = :id AND user_id = :userId")
+            .bind("id", idStorage.bind(id))
+            .bind("userId", idStorage.bind(userId))
+            .then();
+    }
+
+    private Mono<Void> indexLater(Contact contact) {
+        return reactiveDatabaseClient.sql("INSERT IGNORE INTO contact_trigram_pending (user_id, contact_id) VALUES (:userId, :id)")
+            .bind("userId", idStorage.bind(contact.getUser().getId()))
+            .bind("id", idStorage.bind(contact.getId()))
+            .then();
+    }
+
+    private GenericExecuteSpec bindFields(GenericExecuteSpec spec, Contact contact) {
+        spec = spec.bind("id", idStorage.bind(contact.getId()))
+            .bind("userId", idStorage.bind(contact.getUser().getId()))
+            .bind("firstname", contact.getFirstname())
+            .bind("updatedAt", toLocalDateTime(contact.getUpdatedAt()));
+        spec = bindNullable(spec, "lastname", contact.getLastname());
+        spec = bindNullable(spec, "email", contact.getEmail());
+        return bindNullable(spec, "phone", contact.getPhone());
+    }
+
+    private static String where(String name, String email, String phone) {
+        StringBuilder where = new StringBuilder(" WHERE user_id = :userId");
+        if (Objects.nonNull(name)) {
+            where.append(" AND (firstname LIKE :name OR lastname LIKE :name)");
+        }
+        if (Objects.nonNull(email)) {
+            where.append(" AND email LIKE :email");
+        }
+        if (Objects.nonNull(phone)) {
+            where.append(" AND phone LIKE :phone");
+        }
+        return where.toString();
+    }
+
+    private GenericExecuteSpec filter(GenericExecuteSpec spec, String userId, String name, String email, String phone) {
+        spec = spec.bind("userId", idStorage.bind(userId));
+        if (Objects.nonNull(name)) {
+            spec = spec.bind("name", "%" + name + "%");
+        }
+        if (Objects.nonNull(email)) {
+            spec = spec.bind("email", "%" + email + "%");
+        }
+        if (Objects.nonNull(phone)) {
+            spec = spec.bind("phone", "%" + phone + "%");
+        }
+        return spec;
+    }
+
+    private Contact toContact(Readable row) {
+        Contact contact = new Contact();
+        contact.setId(idStorage.read(row, "id"));
+        contact.setFirstname(row.get("firstname", String.class));
+        contact.setLastname(row.get("lastname", String.class));
+        contact.setEmail(row.get("email", String.class));
+        contact.setPhone(row.get("phone", String.class));
+        contact.setCreatedAt(toTimestamp(row.get("created_at", LocalDateTime.class)));
+        contact.setUpdatedAt(toTimestamp(row.get("updated_at", LocalDateTime.class)));
+        return contact;
+    }
+
+    static GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, String value) {
+        return Objects.isNull(value) ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return Objects.isNull(timestamp) ? null : timestamp.toLocalDateTime();
+    }
+
+    static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return Objects.isNull(dateTime) ? null : Timestamp.valueOf(dateTime);
+    }
+}
@@ -0,0 +1,53 @@
+package springboot.restful.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Mono;
+import springboot.restful.entity.User;
+
+import static springboot.restful.repository.ReactiveContactRepository.toTimestamp;
+
+// The token lookups of UserRepository over R2DBC, for resolving the caller of the reactive endpoints.
+@Repository
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "id, email, password, name, token, token_expired_at, created_at, updated_at";
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    public Mono<User> findByToken(String token) {
+        return reactiveDatabaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE token = :token")
+            .bind("token", token)
+            .map(this::toUser)
+            .one();
+    }
+
+    public Mono<User> findByEmail(String email) {
+        return reactiveDatabaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE email = :email")
+            .bind("email", email)
+            .map(this::toUser)
+            .one();
+    }
+
+    private User toUser(Readable row) {
+        User user = new User();
+        user.setId(idStorage.read(row, "id"));
+        user.setEmail(row.get("email", String.class));
+        user.setPassword(row.get("password", String.class));
+        user.setName(row.get("name", String.class));
+        user.setToken(row.get("token", String.class));
+        user.setTokenExpiredAt(row.get("token_expired_at", Long.class));
+        user.setCreatedAt(toTimestamp(row.get("created_at", LocalDateTime.class)));
+        user.setUpdatedAt(toTimestamp(row.get("updated_at", LocalDateTime.class)));
+        return user;
+    }
+}
@@ -1,9 +1,12 @@
 package springboot.restful.repository;
 
+import java.sql.Timestamp;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import springboot.restful.entity.User;
@@ -14,4 +17,24 @@ public interface UserRepository extends JpaRepository<User, String>, JpaSpecific
     Optional<User> findByEmail(String email);
 
     Optional<User> findByToken(String token);
+
+    // The updates below write single columns, so a user copy read earlier never overwrites a concurrent change.
+    // They skip the entity listeners, callers evict the token cache themselves.
+
+    @Modifying
+    @Query("UPDATE User u SET u.token = :token, u.tokenExpiredAt = :tokenExpiredAt WHERE u.email = :email")
+    int updateToken(String email, String token, Long tokenExpiredAt);
+
+    // Zero when the password changed since oldPassword was read.
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email AND u.password = :oldPassword")
+    int updatePasswordIfUnchanged(String email, String password, String oldPassword);
+
+    @Modifying
+    @Query("UPDATE User u SET u.name = :name, u.updatedAt = :updatedAt WHERE u.email = :email")
+    int updateName(String email, String name, Timestamp updatedAt);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = :updatedAt WHERE u.email = :email")
+    int updatePassword(String email, String password, Timestamp updatedAt);
 }
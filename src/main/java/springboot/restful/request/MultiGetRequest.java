@@ -0,0 +1,19 @@
+package springboot.restful.request;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MultiGetRequest {
+
+    @NotNull
+    private List<String> ids;
+}
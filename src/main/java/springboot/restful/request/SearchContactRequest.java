@@ -23,4 +23,8 @@ public class SearchContactRequest {
 
     @NotNull
     private Integer size;
+
+    private String cursor;
+
+    private boolean includeAddresses;
 }
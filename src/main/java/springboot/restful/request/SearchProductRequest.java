@@ -12,17 +12,31 @@ import lombok.NoArgsConstructor;
 @Builder
 public class SearchProductRequest {
 
+    private String query;
+
     private String name;
     
     private Double priceBuy;
+
+    private Double priceBuyMax;
     
     private Double priceSell;
+
+    private Double priceSellMax;
     
     private Integer stock;
 
+    private Integer stockMax;
+
+    private String categoryId;
+
+    private String sort;
+
     @NotNull
     private Integer page;
 
     @NotNull
     private Integer size;
+
+    private String cursor;
 }
@@ -0,0 +1,56 @@
+package springboot.restful.resolver;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import reactor.core.publisher.Mono;
+import springboot.restful.entity.User;
+import springboot.restful.repository.ReactiveUserRepository;
+import springboot.restful.security.TokenVerifier;
+
+/**
+ * {@link UserArgumentResolver} for the reactive endpoints: resolves a {@code Mono<User>} parameter
+ * with the same checks, reading the user over R2DBC on a token cache miss.
+ */
+@Component
+public class ReactiveUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Autowired
+    private TokenVerifier tokenVerifier;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return Mono.class.equals(parameter.getParameterType())
+            && User.class.equals(ResolvableType.forMethodParameter(parameter).getGeneric(0).resolve());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest servletRequest = (HttpServletRequest) webRequest.getNativeRequest();
+        String token = servletRequest.getHeader("X-API-TOKEN");
+
+        return Mono.fromCallable(() -> tokenVerifier.verify(token)).flatMap(verification -> {
+            if (Objects.nonNull(verification.getCached())) {
+                return Mono.fromCallable(() -> tokenVerifier.accept(verification, null));
+            }
+
+            Mono<User> loaded = verification.isSigned() ? reactiveUserRepository.findByEmail(verification.getEmail()) : reactiveUserRepository.findByToken(verification.getToken());
+            return loaded.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(user -> tokenVerifier.accept(verification, user.orElse(null)));
+        });
+    }
+}
@@ -1,18 +1,19 @@
 package springboot.restful.resolver;
 
+import java.util.Objects;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.MethodParameter;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
-import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import springboot.restful.entity.User;
 import springboot.restful.repository.UserRepository;
+import springboot.restful.security.TokenVerifier;
 
 @Component
 public class UserArgumentResolver implements HandlerMethodArgumentResolver {
@@ -20,6 +21,9 @@ public class UserArgumentResolver implements HandlerMethodArgumentResolver {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenVerifier tokenVerifier;
+
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
         return User.class.equals(parameter.getParameterType());
@@ -28,19 +32,14 @@ public class UserArgumentResolver implements HandlerMethodArgumentResolver {
     @Override
     public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer, NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
         HttpServletRequest servletRequest = (HttpServletRequest) webRequest.getNativeRequest();
-        String token = servletRequest.getHeader("X-API-TOKEN");
-
-        if (token == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
-        }
-
-        User user = userRepository.findByToken(token)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+        TokenVerifier.Verification verification = tokenVerifier.verify(servletRequest.getHeader("X-API-TOKEN"));
 
-        if (user.getTokenExpiredAt() < System.currentTimeMillis()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        if (Objects.nonNull(verification.getCached())) {
+            return tokenVerifier.accept(verification, null);
         }
 
-        return user;
+        User loaded = (verification.isSigned() ? userRepository.findById(verification.getEmail()) : userRepository.findByToken(verification.getToken()))
+            .orElse(null);
+        return tokenVerifier.accept(verification, loaded);
     }
 }
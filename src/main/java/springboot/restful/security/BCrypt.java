@@ -209,10 +209,26 @@ public class BCrypt {
 	static final int MIN_LOG_ROUNDS = 4;
 	static final int MAX_LOG_ROUNDS = 31;
 
+	// Engines are reused per thread so a hash allocates nothing while the rounds run
+	private static final ThreadLocal<BCrypt> ENGINE = ThreadLocal.withInitial(BCrypt::new);
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
 	// Expanded Blowfish key
-	private int P[];
+	private final int P[] = new int[P_orig.length];
+
+	private final int S[] = new int[S_orig.length];
+
+	// Key material, expanded once per hash instead of on every round
+	private final int passwordWords[] = new int[P_orig.length];
+
+	private final int passwordWordsBug[] = new int[P_orig.length];
+
+	private final int saltWords[] = new int[P_orig.length];
+
+	private final int lr[] = new int[2];
 
-	private int S[];
+	private final int cdata[] = new int[bf_crypt_ciphertext.length];
 
 	/**
 	 * Encode a byte array using bcrypt's slightly-modified base64 encoding scheme. Note
@@ -328,106 +344,84 @@ public class BCrypt {
 	 */
 	private void encipher(int lr[], int off) {
 		int i, n, l = lr[off], r = lr[off + 1];
+		final int P[] = this.P, S[] = this.S;
 
-		l ^= this.P[0];
+		l ^= P[0];
 		for (i = 0; i <= BLOWFISH_NUM_ROUNDS - 2;) {
 			// Feistel substitution on left word
-			n = this.S[(l >> 24) & 0xff];
-			n += this.S[0x100 | ((l >> 16) & 0xff)];
-			n ^= this.S[0x200 | ((l >> 8) & 0xff)];
-			n += this.S[0x300 | (l & 0xff)];
-			r ^= n ^ this.P[++i];
+			n = S[(l >> 24) & 0xff];
+			n += S[0x100 | ((l >> 16) & 0xff)];
+			n ^= S[0x200 | ((l >> 8) & 0xff)];
+			n += S[0x300 | (l & 0xff)];
+			r ^= n ^ P[++i];
 
 			// Feistel substitution on right word
-			n = this.S[(r >> 24) & 0xff];
-			n += this.S[0x100 | ((r >> 16) & 0xff)];
-			n ^= this.S[0x200 | ((r >> 8) & 0xff)];
-			n += this.S[0x300 | (r & 0xff)];
-			l ^= n ^ this.P[++i];
+			n = S[(r >> 24) & 0xff];
+			n += S[0x100 | ((r >> 16) & 0xff)];
+			n ^= S[0x200 | ((r >> 8) & 0xff)];
+			n += S[0x300 | (r & 0xff)];
+			l ^= n ^ P[++i];
 		}
-		lr[off] = r ^ this.P[BLOWFISH_NUM_ROUNDS + 1];
+		lr[off] = r ^ P[BLOWFISH_NUM_ROUNDS + 1];
 		lr[off + 1] = l;
 	}
 
 	/**
-	 * Cycically extract a word of key material
+	 * Cycically extract enough words of key material to cover the P array
 	 * @param data the string to extract the data from
-	 * @param offp a "pointer" (as a one-entry array) to the current offset into data
-	 * @param signp a "pointer" (as a one-entry array) to the cumulative flag for
-	 * non-benign sign extension
-	 * @return correct and buggy next word of material from data as int[2]
+	 * @param words receives the correct words of material from data
+	 * @param words_bug receives the words with the sign extension bug, or null
+	 * @return the cumulative flag for non-benign sign extension
 	 */
-	private static int[] streamtowords(byte data[], int offp[], int signp[]) {
-		int i;
-		int words[] = { 0, 0 };
-		int off = offp[0];
-		int sign = signp[0];
-
-		for (i = 0; i < 4; i++) {
-			words[0] = (words[0] << 8) | (data[off] & 0xff);
-			words[1] = (words[1] << 8) | data[off]; // sign extension bug
-			if (i > 0) {
-				sign |= words[1] & 0x80;
+	private static int streamtowords(byte data[], int words[], int words_bug[]) {
+		int i, w;
+		int off = 0;
+		int sign = 0;
+
+		for (w = 0; w < words.length; w++) {
+			int word = 0, word_bug = 0;
+			for (i = 0; i < 4; i++) {
+				word = (word << 8) | (data[off] & 0xff);
+				word_bug = (word_bug << 8) | data[off]; // sign extension bug
+				if (i > 0) {
+					sign |= word_bug & 0x80;
+				}
+				if (++off == data.length) {
+					off = 0;
+				}
+			}
+			words[w] = word;
+			if (words_bug != null) {
+				words_bug[w] = word_bug;
 			}
-			off = (off + 1) % data.length;
 		}
 
-		offp[0] = off;
-		signp[0] = sign;
-		return words;
-	}
-
-	/**
-	 * Cycically extract a word of key material
-	 * @param data the string to extract the data from
-	 * @param offp a "pointer" (as a one-entry array) to the current offset into data
-	 * @return the next word of material from data
-	 */
-	private static int streamtoword(byte data[], int offp[]) {
-		int signp[] = { 0 };
-		return streamtowords(data, offp, signp)[0];
-	}
-
-	/**
-	 * Cycically extract a word of key material, with sign-extension bug
-	 * @param data the string to extract the data from
-	 * @param offp a "pointer" (as a one-entry array) to the current offset into data
-	 * @return the next word of material from data
-	 */
-	private static int streamtoword_bug(byte data[], int offp[]) {
-		int signp[] = { 0 };
-		return streamtowords(data, offp, signp)[1];
+		return sign;
 	}
 
 	/**
 	 * Initialise the Blowfish key schedule
 	 */
 	private void init_key() {
-		this.P = P_orig.clone();
-		this.S = S_orig.clone();
+		System.arraycopy(P_orig, 0, this.P, 0, P_orig.length);
+		System.arraycopy(S_orig, 0, this.S, 0, S_orig.length);
 	}
 
 	/**
 	 * Key the Blowfish cipher
-	 * @param key an array containing the key
-	 * @param sign_ext_bug true to implement the 2x bug
-	 * @param safety bit 16 is set when the safety measure is requested
+	 * @param words the key material, as expanded by streamtowords
 	 */
-	private void key(byte key[], boolean sign_ext_bug, int safety) {
+	private void key(int words[]) {
 		int i;
-		int koffp[] = { 0 };
-		int lr[] = { 0, 0 };
+		int lr[] = this.lr;
 		int plen = this.P.length, slen = this.S.length;
 
 		for (i = 0; i < plen; i++) {
-			if (!sign_ext_bug) {
-				this.P[i] = this.P[i] ^ streamtoword(key, koffp);
-			}
-			else {
-				this.P[i] = this.P[i] ^ streamtoword_bug(key, koffp);
-			}
+			this.P[i] = this.P[i] ^ words[i];
 		}
 
+		lr[0] = 0;
+		lr[1] = 0;
 		for (i = 0; i < plen; i += 2) {
 			encipher(lr, 0);
 			this.P[i] = lr[0];
@@ -450,21 +444,20 @@ public class BCrypt {
 	 * @param safety bit 16 is set when the safety measure is requested
 	 */
 	private void ekskey(byte data[], byte key[], boolean sign_ext_bug, int safety) {
-		int i;
-		int koffp[] = { 0 }, doffp[] = { 0 };
-		int lr[] = { 0, 0 };
+		int i, doff = 0;
+		int lr[] = this.lr;
 		int plen = this.P.length, slen = this.S.length;
-		int signp[] = { 0 }; // non-benign sign-extension flag
+		int sign = streamtowords(key, this.passwordWords, this.passwordWordsBug); // non-benign sign-extension flag
 		int diff = 0; // zero iff correct and buggy are same
+		int words[] = sign_ext_bug ? this.passwordWordsBug : this.passwordWords;
+
+		streamtowords(data, this.saltWords, null);
 
 		for (i = 0; i < plen; i++) {
-			int words[] = streamtowords(key, koffp, signp);
-			diff |= words[0] ^ words[1];
-			this.P[i] = this.P[i] ^ words[sign_ext_bug ? 1 : 0];
+			diff |= this.passwordWords[i] ^ this.passwordWordsBug[i];
+			this.P[i] = this.P[i] ^ words[i];
 		}
 
-		int sign = signp[0];
-
 		/*
 		 * At this point, "diff" is zero iff the correct and buggy algorithms produced
 		 * exactly the same result. If so and if "sign" is non-zero, which indicates that
@@ -493,17 +486,20 @@ public class BCrypt {
 		 */
 		this.P[0] ^= sign;
 
+		// The salt is BCRYPT_SALT_LEN bytes, so its key stream repeats every four words
+		lr[0] = 0;
+		lr[1] = 0;
 		for (i = 0; i < plen; i += 2) {
-			lr[0] ^= streamtoword(data, doffp);
-			lr[1] ^= streamtoword(data, doffp);
+			lr[0] ^= this.saltWords[doff++ & 3];
+			lr[1] ^= this.saltWords[doff++ & 3];
 			encipher(lr, 0);
 			this.P[i] = lr[0];
 			this.P[i + 1] = lr[1];
 		}
 
 		for (i = 0; i < slen; i += 2) {
-			lr[0] ^= streamtoword(data, doffp);
-			lr[1] ^= streamtoword(data, doffp);
+			lr[0] ^= this.saltWords[doff++ & 3];
+			lr[1] ^= this.saltWords[doff++ & 3];
 			encipher(lr, 0);
 			this.S[i] = lr[0];
 			this.S[i + 1] = lr[1];
@@ -528,7 +524,7 @@ public class BCrypt {
 	 */
 	private byte[] crypt_raw(byte password[], byte salt[], int log_rounds, boolean sign_ext_bug, int safety,
 			boolean for_check) {
-		int cdata[] = bf_crypt_ciphertext.clone();
+		int cdata[] = this.cdata;
 		int clen = cdata.length;
 
 		long rounds;
@@ -552,12 +548,16 @@ public class BCrypt {
 			throw new IllegalArgumentException("Bad salt length");
 		}
 
+		System.arraycopy(bf_crypt_ciphertext, 0, cdata, 0, clen);
 		init_key();
 		ekskey(salt, password, sign_ext_bug, safety);
+		int passwordKey[] = sign_ext_bug ? this.passwordWordsBug : this.passwordWords;
 		for (int i = 0; i < rounds; i++) {
-			key(password, sign_ext_bug, safety);
-			key(salt, false, safety);
+			key(passwordKey);
+			key(this.saltWords);
 		}
+		Arrays.fill(this.passwordWords, 0);
+		Arrays.fill(this.passwordWordsBug, 0);
 
 		for (int i = 0; i < 64; i++) {
 			for (int j = 0; j < (clen >> 1); j++) {
@@ -652,7 +652,7 @@ public class BCrypt {
 			passwordb = Arrays.copyOf(passwordb, passwordb.length + 1);
 		}
 
-		B = new BCrypt();
+		B = ENGINE.get();
 		hashed = B.crypt_raw(passwordb, saltb, rounds, minor == 'x', minor == 'a' ? 0x10000 : 0, for_check);
 
 		rs.append("$2");
@@ -714,7 +714,7 @@ public class BCrypt {
 	 * @exception IllegalArgumentException if prefix or log_rounds is invalid
 	 */
 	public static String gensalt(String prefix, int log_rounds) throws IllegalArgumentException {
-		return gensalt(prefix, log_rounds, new SecureRandom());
+		return gensalt(prefix, log_rounds, RANDOM);
 	}
 
 	/**
@@ -737,7 +737,7 @@ public class BCrypt {
 	 * @exception IllegalArgumentException if log_rounds is invalid
 	 */
 	public static String gensalt(int log_rounds) throws IllegalArgumentException {
-		return gensalt(log_rounds, new SecureRandom());
+		return gensalt(log_rounds, RANDOM);
 	}
 
 	public static String gensalt(String prefix) {
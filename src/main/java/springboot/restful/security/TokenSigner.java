@@ -0,0 +1,177 @@
+package springboot.restful.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import springboot.restful.entity.User;
+
+/**
+ * Issues and verifies {@code v1.<payload>.<hmac>} access tokens when {@code app.auth.token-mode=signed}.
+ * The payload carries the user id, email, expiry and a token id; the token id is also stored in
+ * {@code users.token} so a logout on any node is seen once the token cache entry expires, while
+ * {@link #revoke(String, Long)} makes it effective immediately on the node that served the logout.
+ */
+@Slf4j
+@Component
+public class TokenSigner {
+
+    private static final String PREFIX = "v1.";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // HMAC-SHA256 keys shorter than its 32 byte output weaken the signature.
+    private static final int MIN_SECRET_BYTES = 32;
+
+    @Value("${app.auth.token-mode:opaque}")
+    private String tokenMode;
+
+    @Value("${app.auth.token-secret:}")
+    private String tokenSecret;
+
+    private Mac prototype;
+
+    private final Cache<String, Long> revoked = Caffeine.newBuilder()
+        .expireAfter(new RevocationExpiry())
+        .build();
+
+    @PostConstruct
+    void init() throws GeneralSecurityException {
+        byte[] key;
+        if (tokenSecret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            if (isEnabled()) {
+                log.warn("app.auth.token-secret is not set, signed tokens will not survive a restart or be accepted by other instances");
+            }
+        } else {
+            key = tokenSecret.getBytes(StandardCharsets.UTF_8);
+            if (key.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("app.auth.token-secret must be at least " + MIN_SECRET_BYTES + " bytes, got " + key.length);
+            }
+        }
+
+        prototype = Mac.getInstance(ALGORITHM);
+        prototype.init(new SecretKeySpec(key, ALGORITHM));
+    }
+
+    public boolean isEnabled() {
+        return "signed".equalsIgnoreCase(tokenMode);
+    }
+
+    public boolean isSigned(String token) {
+        return token.startsWith(PREFIX);
+    }
+
+    public String sign(User user) {
+        String payload = String.join("\n",
+            user.getId(),
+            user.getEmail(),
+            Long.toString(user.getTokenExpiredAt()),
+            user.getToken()
+        );
+        String body = PREFIX + encode(payload.getBytes(StandardCharsets.UTF_8));
+
+        return body + "." + encode(mac(body));
+    }
+
+    public Optional<Claims> verify(String token) {
+        int separator = token.lastIndexOf('.');
+        if (!isSigned(token) || separator <= PREFIX.length()) {
+            return Optional.empty();
+        }
+
+        String body = token.substring(0, separator);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, mac(body))) {
+                return Optional.empty();
+            }
+
+            String[] fields = new String(Base64.getUrlDecoder().decode(body.substring(PREFIX.length())), StandardCharsets.UTF_8).split("\n");
+            if (fields.length != 4) {
+                return Optional.empty();
+            }
+
+            Claims claims = new Claims(fields[0], fields[1], Long.parseLong(fields[2]), fields[3]);
+            if (claims.getExpiredAt() < System.currentTimeMillis()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(claims);
+        } catch (IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return Objects.nonNull(revoked.getIfPresent(tokenId));
+    }
+
+    public void revoke(String tokenId, Long expiredAt) {
+        if (Objects.nonNull(tokenId) && Objects.nonNull(expiredAt)) {
+            revoked.put(tokenId, expiredAt);
+        }
+    }
+
+    private byte[] mac(String body) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Claims {
+
+        private String userId;
+        private String email;
+        private long expiredAt;
+        private String tokenId;
+    }
+
+    // A revocation only has to outlive the token it revokes.
+    private static class RevocationExpiry implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String tokenId, Long expiredAt, long currentTime) {
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(expiredAt - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenId, Long expiredAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenId, expiredAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenId, Long expiredAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
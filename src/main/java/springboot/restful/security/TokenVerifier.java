@@ -0,0 +1,104 @@
+package springboot.restful.security;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import springboot.restful.cache.TokenCache;
+import springboot.restful.entity.User;
+import springboot.restful.exception.UnauthorizedException;
+
+/**
+ * Token checks shared by the blocking and the reactive user argument resolvers. {@link #verify(String)}
+ * runs every check that needs no I/O; when the token cache misses, the resolver reads the user its own
+ * way, by token or by {@link Verification#getEmail()}, and hands the row to {@link #accept(Verification, User)}.
+ */
+@Component
+public class TokenVerifier {
+
+    // Opaque tokens are issued as UUID.randomUUID().toString(), anything else can never match a row.
+    private static final Pattern OPAQUE_TOKEN = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private TokenSigner tokenSigner;
+
+    public Verification verify(String token) {
+        if (token == null || tokenCache.isKnownInvalid(token)) {
+            throw new UnauthorizedException();
+        }
+
+        if (!tokenSigner.isSigned(token)) {
+            if (token.length() != 36 || !OPAQUE_TOKEN.matcher(token).matches()) {
+                throw new UnauthorizedException();
+            }
+
+            return new Verification(token, null, tokenCache.get(token).orElse(null), tokenCache.generation(token));
+        }
+
+        TokenSigner.Claims claims = tokenSigner.verify(token).orElse(null);
+        if (claims == null || tokenSigner.isRevoked(claims.getTokenId())) {
+            tokenCache.markInvalid(token);
+            throw new UnauthorizedException();
+        }
+
+        // Signature and expiry are checked above without I/O, the row is only read to materialize the caller once per cache period.
+        return new Verification(token, claims, tokenCache.get(token).orElse(null), tokenCache.generation(token));
+    }
+
+    /**
+     * The caller of a verified token: the cached user, or else {@code loaded}, the row the resolver
+     * read for the token, which may be null when there is none.
+     */
+    public User accept(Verification verification, User loaded) {
+        String token = verification.getToken();
+        User user = verification.getCached();
+
+        if (Objects.isNull(user)) {
+            if (Objects.isNull(loaded) || (verification.isSigned() && !verification.claims.getTokenId().equals(loaded.getToken()))) {
+                tokenCache.markInvalid(token);
+                throw new UnauthorizedException();
+            }
+
+            tokenCache.put(token, loaded, verification.generation);
+            user = loaded;
+        }
+
+        if (user.getTokenExpiredAt() < System.currentTimeMillis()) {
+            tokenCache.markInvalid(token);
+            throw new UnauthorizedException();
+        }
+
+        return user;
+    }
+
+    @AllArgsConstructor
+    public static class Verification {
+
+        @Getter
+        private final String token;
+
+        private final TokenSigner.Claims claims;
+
+        @Getter
+        private final User cached;
+
+        // Taken before the resolver reads the user, so a row read before a logout is not cached after it.
+        private final long generation;
+
+        public boolean isSigned() {
+            return Objects.nonNull(claims);
+        }
+
+        // Signed tokens are looked up by the email they carry, opaque ones by the token itself.
+        public String getEmail() {
+            return isSigned() ? claims.getEmail() : null;
+        }
+    }
+}
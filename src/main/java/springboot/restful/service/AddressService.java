@@ -2,7 +2,6 @@ package springboot.restful.service;
 
 import java.sql.Timestamp;
 import java.util.List;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -31,6 +30,9 @@ public class AddressService {
     @Autowired
     private ValdiationService valdiationService;
 
+    @Autowired
+    private IdGenerator idGenerator;
+
     private AddressResponse toAddressResponse(Address address) {
         return AddressResponse.builder()
             .id(address.getId())
@@ -44,15 +46,23 @@ public class AddressService {
             .build();
     }
 
+    // One statement when the address exists; only a miss looks at the contact again, to tell which one is not found.
+    private Address findOwned(User user, String contactId, String addressId) {
+        return addressRepository.findOwned(user.getId(), contactId, addressId)
+            .orElseThrow(() -> contactRepository.existsByUserIdAndId(user.getId(), contactId)
+                ? new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found")
+                : new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+    }
+
     @Transactional
     public AddressResponse create(User user, CreateAddressRequest request) {
         valdiationService.validate(request);
 
-        Contact contact = contactRepository.findByUserAndId(user, request.getContactId())
+        Contact contact = contactRepository.findOwned(user.getId(), request.getContactId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
 
         Address address = new Address();
-        address.setId(UUID.randomUUID().toString());
+        address.setId(idGenerator.next());
         address.setStreet(request.getStreet());
         address.setCity(request.getCity());
         address.setProvince(request.getProvince());
@@ -69,11 +79,7 @@ public class AddressService {
 
     @Transactional(readOnly = true)
     public AddressResponse get(User user, String contactId, String addressId) {
-        Contact contact = contactRepository.findByUserAndId(user, contactId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
-
-        Address address = addressRepository.findByContactAndId(contact, addressId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found"));
+        Address address = findOwned(user, contactId, addressId);
 
         return toAddressResponse(address);
     }
@@ -82,18 +88,13 @@ public class AddressService {
     public AddressResponse update(User user, UpdateAddressRequest request) {
         valdiationService.validate(request);
 
-        Contact contact = contactRepository.findByUserAndId(user, request.getContactId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
-
-        Address address = addressRepository.findByContactAndId(contact, request.getAddressId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found"));
+        Address address = findOwned(user, request.getContactId(), request.getAddressId());
         
         address.setStreet(request.getStreet());
         address.setCity(request.getCity());
         address.setProvince(request.getProvince());
         address.setCountry(request.getCountry());
         address.setPostalCode(request.getPostalCode());
-        address.setContact(contact);
         address.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
 
         addressRepository.save(address);
@@ -103,21 +104,17 @@ public class AddressService {
 
     @Transactional
     public void delete(User user, String contactId, String addressId) {
-        Contact contact = contactRepository.findByUserAndId(user, contactId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
-
-        Address address = addressRepository.findByContactAndId(contact, addressId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found"));
+        Address address = findOwned(user, contactId, addressId);
 
         addressRepository.delete(address);
     }
 
     @Transactional(readOnly = true)
     public List<AddressResponse> list(User user, String contactId) {
-        Contact contact = contactRepository.findByUserAndId(user, contactId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
-        
-        List<Address> addresses = addressRepository.findAllByContact(contact);
+        List<Address> addresses = addressRepository.findAllOwned(user.getId(), contactId);
+        if (addresses.isEmpty() && !contactRepository.existsByUserIdAndId(user.getId(), contactId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found");
+        }
 
         // Cara 1
         // return addresses.stream().map(address -> toAddressResponse(address)).collect(Collectors.toList());
@@ -1,18 +1,21 @@
 package springboot.restful.service;
 
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.transaction.Transactional;
+import springboot.restful.cache.TokenCache;
 import springboot.restful.entity.User;
 import springboot.restful.model.TokenResponse;
 import springboot.restful.repository.UserRepository;
 import springboot.restful.request.LoginUserRequest;
-import springboot.restful.security.BCrypt;
+import springboot.restful.security.TokenSigner;
 
 @Service
 public class AuthService {
@@ -23,22 +26,45 @@ public class AuthService {
     @Autowired
     private ValdiationService valdiationService;
 
-    @Transactional
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private TokenSigner tokenSigner;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Not transactional: bcrypt can wait for the password pool, which must not hold a database connection.
+    // The user is read before the check; afterwards only the token columns, and a rehashed password if the
+    // stored one is still the hash that was checked, are written, so concurrent changes to the row survive.
     public TokenResponse login(LoginUserRequest request) {
         valdiationService.validate(request);
 
         User user = userRepository.findById(request.getEmail())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Email or Password is wrong!"));
 
-        if (BCrypt.checkpw(request.getPassword(), user.getPassword())) {
-            user.setToken(UUID.randomUUID().toString());
-            user.setTokenExpiredAt(next30Days());
-            userRepository.save(user);
+        if (passwordService.check(request.getPassword(), user.getPassword())) {
+            Optional<String> rehashed = passwordService.rehash(request.getPassword(), user.getPassword());
+            String token = UUID.randomUUID().toString();
+            long tokenExpiredAt = next30Days();
+
+            tokenSigner.revoke(user.getToken(), user.getTokenExpiredAt());
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.updateToken(user.getEmail(), token, tokenExpiredAt);
+                rehashed.ifPresent(password -> userRepository.updatePasswordIfUnchanged(user.getEmail(), password, user.getPassword()));
+                tokenCache.evictAfterWrite(user.getEmail(), user.getToken());
+            });
+            user.setToken(token);
+            user.setTokenExpiredAt(tokenExpiredAt);
 
             return TokenResponse.builder()
                 .email(user.getEmail())
                 .name(user.getName())
-                .token(user.getToken())
+                .token(tokenSigner.isEnabled() ? tokenSigner.sign(user) : user.getToken())
                 .expiredAt(user.getTokenExpiredAt())
                 .build();
 
@@ -53,9 +79,8 @@ public class AuthService {
 
     @Transactional
     public void logout(User user) {
-        user.setToken(null);
-        user.setTokenExpiredAt(null);
-
-        userRepository.save(user);
+        tokenSigner.revoke(user.getToken(), user.getTokenExpiredAt());
+        userRepository.updateToken(user.getEmail(), null, null);
+        tokenCache.evictAfterWrite(user.getEmail(), user.getToken());
     }
 }
@@ -1,7 +1,6 @@
 package springboot.restful.service;
 
 import java.sql.Timestamp;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -9,6 +8,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import springboot.restful.cache.CategoryCache;
 import springboot.restful.entity.Category;
 import springboot.restful.entity.User;
 import springboot.restful.model.CategoryResponse;
@@ -25,6 +25,12 @@ public class CategoryService {
     @Autowired
     private ValdiationService valdiationService;
 
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
     private CategoryResponse toCategoryResponse(Category category) {
         return CategoryResponse.builder()
             .id(category.getId())
@@ -39,7 +45,7 @@ public class CategoryService {
         valdiationService.validate(request);
 
         Category category = new Category();
-        category.setId(UUID.randomUUID().toString());
+        category.setId(idGenerator.next());
         category.setName(request.getName());
         category.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         category.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -49,9 +55,8 @@ public class CategoryService {
         return toCategoryResponse(category);
     }
 
-    @Transactional(readOnly = true)
     public CategoryResponse get(User user, String id) {
-        Category category = categoryRepository.findById(id)
+        Category category = categoryCache.get(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
 
         return toCategoryResponse(category);
@@ -2,30 +2,55 @@ package springboot.restful.service;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.persistence.criteria.Predicate;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import springboot.restful.cache.ContactSuggestIndex;
+import springboot.restful.cache.SearchTotalCache;
+import springboot.restful.entity.Address;
 import springboot.restful.entity.Contact;
 import springboot.restful.entity.User;
+import springboot.restful.model.AddressResponse;
+import springboot.restful.model.BulkItemResponse;
 import springboot.restful.model.ContactResponse;
+import springboot.restful.model.MultiGetResponse;
+import springboot.restful.repository.AddressRepository;
+import springboot.restful.repository.ContactBatchRepository;
+import springboot.restful.repository.ContactExportRepository;
 import springboot.restful.repository.ContactRepository;
+import springboot.restful.repository.ContactTrigramRepository;
+import springboot.restful.repository.ContactTrigramRepository.Field;
 import springboot.restful.request.CreateContactRequest;
+import springboot.restful.request.MultiGetRequest;
 import springboot.restful.request.SearchContactRequest;
 import springboot.restful.request.UpdateContactRequest;
 
+@Slf4j
 @Service
 public class ContactService {
 
@@ -35,6 +60,39 @@ public class ContactService {
     @Autowired
     private ValdiationService valdiationService;
 
+    @Autowired
+    private SearchTotalCache searchTotalCache;
+
+    @Autowired
+    private ContactTrigramRepository contactTrigramRepository;
+
+    @Autowired
+    private ContactSuggestIndex contactSuggestIndex;
+
+    @Value("${app.contact-suggest.max-limit:50}")
+    private int maxSuggestLimit;
+
+    @Autowired
+    private ContactBatchRepository contactBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ContactExportRepository contactExportRepository;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Value("${app.contact-bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${app.multi-get.max-ids:100}")
+    private int maxMultiGetIds;
+
     private ContactResponse toContactResponse(Contact contact) {
         return ContactResponse.builder()
             .id(contact.getId())
@@ -47,12 +105,43 @@ public class ContactService {
             .build();
     }
 
+    private AddressResponse toAddressResponse(Address address) {
+        return AddressResponse.builder()
+            .id(address.getId())
+            .street(address.getStreet())
+            .city(address.getCity())
+            .province(address.getProvince())
+            .country(address.getCountry())
+            .postalCode(address.getPostalCode())
+            .createdAt(address.getCreatedAt())
+            .updatedAt(address.getUpdatedAt())
+            .build();
+    }
+
+    // The addresses of every contact in one query, instead of one per contact through Contact.addresses.
+    private Map<String, List<AddressResponse>> findAddresses(List<Contact> contacts) {
+        if (contacts.isEmpty()) {
+            return Map.of();
+        }
+
+        return addressRepository.findAllByContactIn(contacts).stream()
+            .collect(Collectors.groupingBy(address -> address.getContact().getId(), Collectors.mapping(this::toAddressResponse, Collectors.toList())));
+    }
+
+    private ContactResponse toContactResponse(Contact contact, Map<String, List<AddressResponse>> addresses) {
+        ContactResponse contactResponse = toContactResponse(contact);
+        if (Objects.nonNull(addresses)) {
+            contactResponse.setAddresses(addresses.getOrDefault(contact.getId(), List.of()));
+        }
+        return contactResponse;
+    }
+
     @Transactional
     public ContactResponse create(User user, CreateContactRequest request) {
         valdiationService.validate(request);
 
         Contact contact = new Contact();
-        contact.setId(UUID.randomUUID().toString());
+        contact.setId(idGenerator.next());
         contact.setFirstname(request.getFirstname());
         contact.setLastname(request.getLastname());
         contact.setEmail(request.getEmail());
@@ -66,12 +155,116 @@ public class ContactService {
         return toContactResponse(contact);
     }
 
+    /**
+     * Validates and inserts the contacts in chunks of {@code app.contact-bulk.chunk-size}, each chunk
+     * in its own transaction. Invalid items are reported and skipped; an item that cannot be read
+     * ends the import, the chunks before it stay committed.
+     */
+    public List<BulkItemResponse> bulkCreate(User user, Iterator<CreateContactRequest> requests) {
+        List<BulkItemResponse> results = new ArrayList<>();
+        List<Contact> chunk = new ArrayList<>(bulkChunkSize);
+        List<BulkItemResponse> chunkResults = new ArrayList<>(bulkChunkSize);
+
+        for (int index = 0; ; index++) {
+            CreateContactRequest request;
+            try {
+                if (!requests.hasNext()) {
+                    break;
+                }
+                request = requests.next();
+            } catch (RuntimeException exception) {
+                results.add(BulkItemResponse.builder().index(index).errors("Malformed contact, the rest of the request was not read").build());
+                break;
+            }
+
+            try {
+                valdiationService.validate(request);
+            } catch (ConstraintViolationException exception) {
+                results.add(BulkItemResponse.builder().index(index).errors(exception.getMessage()).build());
+                continue;
+            }
+
+            Contact contact = new Contact();
+            contact.setId(idGenerator.next());
+            contact.setFirstname(request.getFirstname());
+            contact.setLastname(request.getLastname());
+            contact.setEmail(request.getEmail());
+            contact.setPhone(request.getPhone());
+            contact.setUser(user);
+            contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            contact.setUpdatedAt(contact.getCreatedAt());
+            BulkItemResponse result = BulkItemResponse.builder().index(index).id(contact.getId()).build();
+            chunk.add(contact);
+            chunkResults.add(result);
+            results.add(result);
+
+            if (chunk.size() == bulkChunkSize) {
+                insertChunk(user, chunk, chunkResults);
+                chunk.clear();
+                chunkResults.clear();
+            }
+        }
+
+        insertChunk(user, chunk, chunkResults);
+        return results;
+    }
+
+    // A chunk that fails is rolled back and its contacts reported as not saved, the next chunks still go in.
+    private void insertChunk(User user, List<Contact> contacts, List<BulkItemResponse> results) {
+        if (contacts.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                contactBatchRepository.insertAll(contacts);
+                contactTrigramRepository.indexLater(contacts);
+            });
+        } catch (DataAccessException | TransactionException exception) {
+            log.warn("Bulk contact chunk starting at index {} rolled back", results.get(0).getIndex(), exception);
+            for (BulkItemResponse result : results) {
+                result.setId(null);
+                result.setErrors("Not saved, the chunk it was in could not be inserted");
+            }
+            return;
+        }
+
+        for (Contact contact : contacts) {
+            contactSuggestIndex.put(user.getId(), toContactResponse(contact));
+        }
+    }
+
+    // Not transactional: the rows are streamed on a connection of their own, one contact in memory at a time.
+    public void export(User user, Consumer<ContactResponse> consumer) {
+        contactExportRepository.streamByUserId(user.getId(), contact -> {
+            ContactResponse contactResponse = toContactResponse(contact);
+            contactResponse.setAddresses(contact.getAddresses().stream().map(this::toAddressResponse).toList());
+            consumer.accept(contactResponse);
+        });
+    }
+
     @Transactional(readOnly = true)
-    public ContactResponse get(User user, String id) {
+    public ContactResponse get(User user, String id, boolean includeAddresses) {
         Contact contact = contactRepository.findByUserAndId(user, id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
 
-        return toContactResponse(contact);
+        return toContactResponse(contact, includeAddresses ? findAddresses(List.of(contact)) : null);
+    }
+
+    // Contacts of other users are reported as missing, like ids that do not exist.
+    @Transactional(readOnly = true)
+    public MultiGetResponse<ContactResponse> getAll(User user, MultiGetRequest request) {
+        valdiationService.validate(request);
+
+        List<String> ids = MultiGet.distinct(request.getIds(), maxMultiGetIds);
+        if (ids.isEmpty()) {
+            return MultiGet.ordered(ids, Map.of());
+        }
+
+        Map<String, ContactResponse> found = contactRepository.findAllOwned(user.getId(), ids).stream()
+            .collect(Collectors.toMap(Contact::getId, this::toContactResponse));
+
+        return MultiGet.ordered(ids, found);
     }
 
     @Transactional
@@ -101,12 +294,51 @@ public class ContactService {
         contactRepository.delete(contact);
     }
 
-    @Transactional(readOnly = true)
-    public Page<ContactResponse> search(User user, SearchContactRequest request) {
-        Specification<Contact> specification = (root, query, builder) -> {
+    public List<ContactResponse> suggest(User user, String prefix, int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+        }
+
+        return contactSuggestIndex.suggest(user.getId(), prefix, Math.min(limit, maxSuggestLimit));
+    }
+
+    // Candidate ids from the trigram index, empty when every filter needs a scan.
+    private Optional<Set<String>> toCandidates(User user, SearchContactRequest request) {
+        Optional<Set<String>> candidates = Optional.empty();
+
+        if (Objects.nonNull(request.getName())) {
+            candidates = intersect(candidates, contactTrigramRepository.candidates(user.getId(), request.getName(), Field.FIRSTNAME, Field.LASTNAME));
+        }
+
+        if (Objects.nonNull(request.getEmail())) {
+            candidates = intersect(candidates, contactTrigramRepository.candidates(user.getId(), request.getEmail(), Field.EMAIL));
+        }
+
+        if (Objects.nonNull(request.getPhone())) {
+            candidates = intersect(candidates, contactTrigramRepository.candidates(user.getId(), request.getPhone(), Field.PHONE));
+        }
+
+        return candidates;
+    }
+
+    private Optional<Set<String>> intersect(Optional<Set<String>> left, Optional<Set<String>> right) {
+        if (left.isEmpty()) {
+            return right;
+        }
+
+        right.ifPresent(left.get()::retainAll);
+        return left;
+    }
+
+    private Specification<Contact> toSpecification(User user, SearchContactRequest request) {
+        Optional<Set<String>> candidates = toCandidates(user, request);
+
+        return (root, query, builder) -> {
             List<Predicate> predicates = new ArrayList<Predicate>();
             predicates.add(builder.equal(root.get("user"), user));
 
+            candidates.ifPresent(ids -> predicates.add(ids.isEmpty() ? builder.disjunction() : root.get("id").in(ids)));
+
             if (Objects.nonNull(request.getName())) {
                 predicates.add(builder.or(
                     builder.like(root.get("firstname"), "%" + request.getName() + "%"),
@@ -124,6 +356,11 @@ public class ContactService {
 
             return query.where(predicates.toArray(new Predicate[] {})).getRestriction();
         };
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ContactResponse> search(User user, SearchContactRequest request) {
+        Specification<Contact> specification = toSpecification(user, request);
 
         Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
         Page<Contact> contacts = contactRepository.findAll(specification, pageable);
@@ -134,8 +371,38 @@ public class ContactService {
         //     .collect(Collectors.toList());
 
         // Cara 2
-        List<ContactResponse> contactResponses = contacts.getContent().stream().map(this::toContactResponse).toList();
+        Map<String, List<AddressResponse>> addresses = request.isIncludeAddresses() ? findAddresses(contacts.getContent()) : null;
+        List<ContactResponse> contactResponses = contacts.getContent().stream().map(contact -> toContactResponse(contact, addresses)).toList();
 
         return new PageImpl<>(contactResponses, pageable, contacts.getTotalElements());
     }
+
+    @Transactional(readOnly = true)
+    public Window<ContactResponse> scroll(User user, SearchContactRequest request) {
+        Window<Contact> contacts = contactRepository.findBy(toSpecification(user, request), query -> query
+            .sortBy(CursorCodec.SORT)
+            .limit(request.getSize())
+            .scroll(CursorCodec.decode(request.getCursor())));
+
+        Map<String, List<AddressResponse>> addresses = request.isIncludeAddresses() ? findAddresses(contacts.getContent()) : null;
+        return contacts.map(contact -> toContactResponse(contact, addresses));
+    }
+
+    @Transactional(readOnly = true)
+    public Window<ContactResponse> slice(User user, SearchContactRequest request) {
+        Window<Contact> contacts = contactRepository.findBy(toSpecification(user, request), query -> query
+            .sortBy(CursorCodec.SORT)
+            .limit(request.getSize())
+            .scroll(CursorCodec.offset(request.getPage(), request.getSize())));
+
+        Map<String, List<AddressResponse>> addresses = request.isIncludeAddresses() ? findAddresses(contacts.getContent()) : null;
+        return contacts.map(contact -> toContactResponse(contact, addresses));
+    }
+
+    @Transactional(readOnly = true)
+    public long approximateTotal(User user, SearchContactRequest request) {
+        String key = user.getId() + "|contacts|" + request.getName() + "|" + request.getEmail() + "|" + request.getPhone();
+
+        return searchTotalCache.get(key, () -> contactRepository.count(toSpecification(user, request)));
+    }
 }
@@ -0,0 +1,68 @@
+package springboot.restful.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Opaque cursors for keyset pagination over {@link #SORT}. A cursor is the base64url form of
+ * {@code <createdAt millis>:<id>} of the last row returned; an empty cursor starts from the beginning.
+ */
+public final class CursorCodec {
+
+    public static final Sort SORT = Sort.by(Sort.Direction.ASC, "createdAt", "id");
+
+    private CursorCodec() {
+    }
+
+    public static ScrollPosition decode(String cursor) {
+        if (cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            if (separator <= 0 || separator == value.length() - 1) {
+                throw new IllegalArgumentException(cursor);
+            }
+
+            return ScrollPosition.forward(Map.of(
+                "createdAt", new Timestamp(Long.parseLong(value.substring(0, separator))),
+                "id", value.substring(separator + 1)
+            ));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    // Offset positions point at the last row already seen, so page 0 is the initial position.
+    public static ScrollPosition offset(int page, int size) {
+        return page <= 0 ? ScrollPosition.offset() : ScrollPosition.offset((long) page * size - 1);
+    }
+
+    public static String nextCursor(Window<?> window) {
+        if (window.isEmpty() || !window.hasNext()) {
+            return null;
+        }
+
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Timestamp createdAt = (Timestamp) position.getKeys().get("createdAt");
+        Object id = position.getKeys().get("id");
+        if (Objects.isNull(createdAt) || Objects.isNull(id)) {
+            return null;
+        }
+
+        String value = createdAt.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
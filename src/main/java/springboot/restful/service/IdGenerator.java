@@ -0,0 +1,63 @@
+package springboot.restful.service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Primary keys for new rows. With {@code app.id.mode=time-ordered} (the default) ids are UUIDv7:
+ * a 48-bit millisecond timestamp followed by a 12-bit sequence and 62 random bits, so rows are
+ * appended near the end of the clustered index instead of at random pages. {@code random} keeps
+ * UUIDv4. Both are the usual 36-character form, existing ids stay valid.
+ */
+@Component
+public class IdGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+
+    @Value("${app.id.mode:time-ordered}")
+    private String mode;
+
+    private boolean timeOrdered;
+
+    // <millis><sequence> of the last id, shared by every thread so ids from this node never go backwards.
+    private final AtomicLong last = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        if (!mode.equals("time-ordered") && !mode.equals("random")) {
+            throw new IllegalStateException("app.id.mode must be time-ordered or random, not " + mode);
+        }
+        timeOrdered = mode.equals("time-ordered");
+    }
+
+    public String next() {
+        return timeOrdered ? timeOrdered().toString() : UUID.randomUUID().toString();
+    }
+
+    /**
+     * Ids created in the same millisecond take the next sequence value; when 4096 of them are not
+     * enough the timestamp runs ahead of the clock until it catches up (RFC 9562, method 3). A
+     * compare-and-set on one long is all threads share, there is no lock.
+     */
+    UUID timeOrdered() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        long previous;
+        long current;
+        do {
+            previous = last.get();
+            current = Math.max(now, previous + 1);
+        } while (!last.compareAndSet(previous, current));
+
+        long millis = current >>> SEQUENCE_BITS;
+        long sequence = current & ((1L << SEQUENCE_BITS) - 1);
+        long mostSignificant = millis << 16 | 0x7000L | sequence;
+        long leastSignificant = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
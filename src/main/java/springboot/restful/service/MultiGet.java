@@ -0,0 +1,63 @@
+package springboot.restful.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import springboot.restful.model.MultiGetResponse;
+
+/**
+ * Shared by the multi-get endpoints: the requested ids are looked up with one {@code IN} query, the
+ * response lists what was found in request order and the ids that were not, spelled as requested.
+ * Ids are compared in lower case, like the case-insensitive collation of the id columns does in the query.
+ */
+public final class MultiGet {
+
+    private MultiGet() {
+    }
+
+    // Blank and repeated ids, in any case, are dropped, the first occurrence keeps its position and spelling.
+    public static List<String> distinct(List<String> ids, int maxIds) {
+        Map<String, String> byKey = new LinkedHashMap<>();
+        ids.stream().filter(id -> Objects.nonNull(id) && !id.isBlank()).forEach(id -> byKey.putIfAbsent(normalize(id), id));
+        List<String> distinct = new ArrayList<>(byKey.values());
+
+        if (distinct.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxIds + " ids can be requested at once");
+        }
+        return distinct;
+    }
+
+    // Ids from distinct(), matched against the found rows in lower case whatever case either was written in.
+    public static <T> MultiGetResponse<T> ordered(List<String> ids, Map<String, T> found) {
+        Map<String, T> byId = new HashMap<>(found.size());
+        found.forEach((id, item) -> byId.put(normalize(id), item));
+
+        List<T> items = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            T item = byId.get(normalize(id));
+            if (Objects.nonNull(item)) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        return MultiGetResponse.<T> builder()
+            .items(items)
+            .missing(missing)
+            .build();
+    }
+
+    private static String normalize(String id) {
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,191 @@
+package springboot.restful.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import springboot.restful.security.BCrypt;
+
+/**
+ * Runs bcrypt on a dedicated, bounded pool so a login or register storm cannot occupy every
+ * request thread. When the pool and its queue are full callers get a 503 straight away.
+ * The bcrypt cost is calibrated at startup so one hash takes about {@code app.password.target-time}
+ * on this machine, unless {@code app.password.log-rounds} pins it.
+ */
+@Slf4j
+@Service
+public class PasswordService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.password.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int threads;
+
+    @Value("${app.password.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @Value("${app.password.timeout:10s}")
+    private Duration timeout;
+
+    @Value("${app.password.log-rounds:0}")
+    private int configuredLogRounds;
+
+    @Value("${app.password.target-time:250ms}")
+    private Duration targetTime;
+
+    @Value("${app.password.min-log-rounds:10}")
+    private int minLogRounds;
+
+    @Value("${app.password.max-log-rounds:16}")
+    private int maxLogRounds;
+
+    @Getter
+    private int logRounds;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer hashTimer;
+
+    private Timer checkTimer;
+
+    private Counter rejected;
+
+    private Counter rehashed;
+
+    @PostConstruct
+    void init() {
+        logRounds = configuredLogRounds > 0 ? configuredLogRounds : calibrate();
+
+        // Callers wait without a connection, but once admitted each one still reads and writes a user.
+        if (threads + queueCapacity >= connectionPoolSize) {
+            log.warn("app.password.queue-capacity {} plus {} bcrypt threads is not below the {} database connections,"
+                + " a login burst can take every connection", queueCapacity, threads, connectionPoolSize);
+        }
+
+        executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("bcrypt-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        hashTimer = Timer.builder("password.hash").tag("operation", "hash").register(meterRegistry);
+        checkTimer = Timer.builder("password.hash").tag("operation", "check").register(meterRegistry);
+        rejected = Counter.builder("password.rejected").register(meterRegistry);
+        rehashed = Counter.builder("password.rehashed").register(meterRegistry);
+        Gauge.builder("password.log.rounds", this, PasswordService::getLogRounds).register(meterRegistry);
+        Gauge.builder("password.queue.size", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void destroy() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String password) {
+        return execute(hashTimer, () -> BCrypt.hashpw(password, BCrypt.gensalt(logRounds)));
+    }
+
+    public boolean check(String password, String hashed) {
+        return execute(checkTimer, () -> BCrypt.checkpw(password, hashed));
+    }
+
+    /**
+     * Hashes an already verified password again when its stored hash uses a lower cost. Empty when
+     * the cost is the same or higher, so nodes calibrated to different costs do not rehash the same
+     * account back and forth, or when the pool is too busy and the next login will try again.
+     */
+    public Optional<String> rehash(String password, String hashed) {
+        if (logRoundsOf(hashed) >= logRounds) {
+            return Optional.empty();
+        }
+
+        try {
+            String result = hash(password);
+            rehashed.increment();
+            return Optional.of(result);
+        } catch (ResponseStatusException exception) {
+            return Optional.empty();
+        }
+    }
+
+    // Every doubling of the rounds doubles the time, so one measurement at the minimum is enough.
+    private int calibrate() {
+        String salt = BCrypt.gensalt(minLogRounds);
+        BCrypt.hashpw("calibration", salt);
+
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", salt);
+        long elapsed = System.nanoTime() - start;
+
+        int result = minLogRounds;
+        for (long next = elapsed * 2; result < maxLogRounds && next <= targetTime.toNanos(); next *= 2) {
+            result++;
+        }
+
+        log.info("bcrypt cost {} selected, cost {} took {} ms against a target of {} ms",
+            result, minLogRounds, TimeUnit.NANOSECONDS.toMillis(elapsed), targetTime.toMillis());
+        return result;
+    }
+
+    private static int logRoundsOf(String hashed) {
+        int offset = hashed.charAt(2) == '$' ? 3 : 4;
+        return Integer.parseInt(hashed.substring(offset, offset + 2));
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException exception) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again later");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again later");
+        } catch (InterruptedException exception) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again later");
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+}
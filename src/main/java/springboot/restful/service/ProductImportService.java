@@ -0,0 +1,230 @@
+package springboot.restful.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import springboot.restful.cache.CategoryCache;
+import springboot.restful.entity.Category;
+import springboot.restful.entity.Product;
+import springboot.restful.entity.User;
+import springboot.restful.model.BulkItemResponse;
+import springboot.restful.model.ProductImportResponse;
+import springboot.restful.model.ProductImportResponse.Action;
+import springboot.restful.repository.ProductBatchRepository;
+import springboot.restful.request.CreateProductRequest;
+
+/**
+ * Streaming product import: each row is parsed, validated, resolved against the category cache and
+ * buffered until a chunk of {@code app.product-import.chunk-size} rows is inserted in one
+ * transaction. Memory stays bounded by the chunk and by {@code app.product-import.max-errors}.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    @Autowired
+    private ValdiationService valdiationService;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Value("${app.product-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.product-import.max-errors:1000}")
+    private int maxErrors;
+
+    private Counter insertedRows;
+
+    private Counter failedRows;
+
+    @PostConstruct
+    void init() {
+        insertedRows = Counter.builder("product.import.rows").tag("result", "inserted").register(meterRegistry);
+        failedRows = Counter.builder("product.import.rows").tag("result", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Rows before {@code resumeFrom} are read but not imported, so a file can be sent again after a
+     * failure. The response tells the caller where to resume and whether it should.
+     */
+    public ProductImportResponse importProducts(User user, Iterator<CreateProductRequest> rows, int resumeFrom) {
+        Import current = new Import(resumeFrom);
+
+        for (int index = 0; ; index++) {
+            CreateProductRequest request;
+            try {
+                if (!rows.hasNext()) {
+                    break;
+                }
+                request = rows.next();
+            } catch (RuntimeException exception) {
+                current.fail(index, "Malformed row, the rest of the file was not read");
+                return current.flush() ? current.finish(Action.STOP, index) : current.rolledBack();
+            }
+
+            current.rows = index + 1;
+            if (index < resumeFrom) {
+                continue;
+            }
+
+            String error = validate(request, current.categories);
+            if (Objects.nonNull(error)) {
+                current.fail(index, error);
+                if (current.failed > maxErrors) {
+                    return current.flush() ? current.finish(Action.STOP, index + 1) : current.rolledBack();
+                }
+                continue;
+            }
+
+            current.chunk.add(toProduct(request));
+            current.chunkRows.add(index);
+            if (current.chunk.size() == chunkSize) {
+                if (!current.flush()) {
+                    return current.rolledBack();
+                }
+                current.chunkStart = index + 1;
+            }
+        }
+
+        return current.flush() ? current.finish(Action.DONE, null) : current.rolledBack();
+    }
+
+    private String validate(CreateProductRequest request, Map<String, Boolean> categories) {
+        try {
+            valdiationService.validate(request);
+        } catch (ConstraintViolationException exception) {
+            return exception.getMessage();
+        }
+
+        // Unknown ids would read through to the database on every row, remember them for this import.
+        if (!categories.computeIfAbsent(request.getCategoryId(), categoryCache::exists)) {
+            return "Category not found";
+        }
+        return null;
+    }
+
+    private Product toProduct(CreateProductRequest request) {
+        Category category = new Category();
+        category.setId(request.getCategoryId());
+
+        Product product = new Product();
+        product.setId(idGenerator.next());
+        product.setName(request.getName());
+        product.setPriceBuy(request.getPriceBuy());
+        product.setPriceSell(request.getPriceSell());
+        product.setStock(request.getStock());
+        product.setDescription(request.getDescription());
+        product.setCategory(category);
+        product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        product.setUpdatedAt(product.getCreatedAt());
+        return product;
+    }
+
+    private class Import {
+
+        private final Map<String, Boolean> categories = new HashMap<>();
+
+        private final List<Product> chunk = new ArrayList<>(chunkSize);
+
+        private final List<Integer> chunkRows = new ArrayList<>(chunkSize);
+
+        private final List<BulkItemResponse> errors = new ArrayList<>();
+
+        private int chunkStart;
+
+        private int rows;
+
+        private int inserted;
+
+        private int failed;
+
+        private Action rollback;
+
+        Import(int resumeFrom) {
+            this.chunkStart = resumeFrom;
+        }
+
+        void fail(int index, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxErrors) {
+                errors.add(BulkItemResponse.builder().index(index).errors(message).build());
+            }
+        }
+
+        // False when the chunk was rolled back: worth retrying on a transient error, otherwise its rows
+        // are reported as failed since the database rejects one of them.
+        boolean flush() {
+            if (chunk.isEmpty()) {
+                return true;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> productBatchRepository.insertAll(chunk));
+            } catch (TransientDataAccessException | RecoverableDataAccessException exception) {
+                log.warn("Product import chunk starting at row {} rolled back", chunkStart, exception);
+                rollback = Action.RESUME;
+                return false;
+            } catch (DataAccessException | TransactionException exception) {
+                log.warn("Product import chunk starting at row {} rejected", chunkStart, exception);
+                chunkRows.forEach(index -> fail(index, "Rejected by the database with its chunk, starting at row " + chunkStart));
+                rollback = Action.STOP;
+                return false;
+            }
+
+            inserted += chunk.size();
+            insertedRows.increment(chunk.size());
+            log.debug("Product import inserted {} rows, {} failed, {} read", inserted, failed, rows);
+            chunk.clear();
+            chunkRows.clear();
+            return true;
+        }
+
+        ProductImportResponse rolledBack() {
+            return finish(rollback, chunkStart);
+        }
+
+        ProductImportResponse finish(Action action, Integer resumeFrom) {
+            return ProductImportResponse.builder()
+                .action(action)
+                .resumeFrom(resumeFrom)
+                .rows(rows)
+                .inserted(inserted)
+                .failed(failed)
+                .errors(errors)
+                .build();
+        }
+    }
+}
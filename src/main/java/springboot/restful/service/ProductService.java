@@ -3,14 +3,17 @@ package springboot.restful.service;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -18,12 +21,16 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.persistence.criteria.Predicate;
+import springboot.restful.cache.CategoryCache;
+import springboot.restful.cache.SearchTotalCache;
 import springboot.restful.entity.Category;
 import springboot.restful.entity.Product;
 import springboot.restful.entity.User;
 import springboot.restful.model.CategoryResponse;
+import springboot.restful.model.MultiGetResponse;
 import springboot.restful.model.ProductResponse;
 import springboot.restful.repository.CategoryRepository;
+import springboot.restful.repository.IdStorage;
 import springboot.restful.repository.ProductRepository;
 import springboot.restful.request.CreateProductRequest;
 import springboot.restful.request.SearchProductRequest;
@@ -41,10 +48,37 @@ public class ProductService {
     @Autowired
     private ValdiationService valdiationService;
 
+    @Autowired
+    private SearchTotalCache searchTotalCache;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private IdStorage idStorage;
+
+    @Value("${app.multi-get.max-ids:100}")
+    private int maxMultiGetIds;
+
+    private Category getCategoryReference(String categoryId) {
+        if (!categoryCache.exists(categoryId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+        }
+
+        return categoryRepository.getReferenceById(categoryId);
+    }
+
     private ProductResponse toProductResponse(Product product) {
-        Category category = categoryRepository.findById(product.getCategory().getId())
+        Category category = categoryCache.get(product.getCategory().getId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
 
+        return toProductResponse(product, category);
+    }
+
+    private ProductResponse toProductResponse(Product product, Category category) {
         CategoryResponse categoryResponse = toCategoryResponse(category);
 
         return ProductResponse.builder()
@@ -73,11 +107,10 @@ public class ProductService {
     public ProductResponse create(User user, CreateProductRequest request) {
         valdiationService.validate(request);
 
-        Category category = categoryRepository.findById(request.getCategoryId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+        Category category = getCategoryReference(request.getCategoryId());
 
         Product product = new Product();
-        product.setId(UUID.randomUUID().toString());
+        product.setId(idGenerator.next());
         product.setName(request.getName());
         product.setPriceBuy(request.getPriceBuy());
         product.setPriceSell(request.getPriceSell());
@@ -100,11 +133,32 @@ public class ProductService {
         return toProductResponse(product);
     }
 
+    @Transactional(readOnly = true)
+    public MultiGetResponse<ProductResponse> getAll(User user, List<String> productIds) {
+        List<String> ids = MultiGet.distinct(productIds, maxMultiGetIds);
+        if (ids.isEmpty()) {
+            return MultiGet.ordered(ids, Map.of());
+        }
+
+        List<Product> products = productRepository.findAllById(ids);
+        Map<String, Category> categories = categoryCache.getAll(products.stream().map(product -> product.getCategory().getId()).toList());
+
+        Map<String, ProductResponse> found = products.stream()
+            .collect(Collectors.toMap(Product::getId, product -> {
+                Category category = categories.get(product.getCategory().getId());
+                if (Objects.isNull(category)) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+                }
+                return toProductResponse(product, category);
+            }));
+
+        return MultiGet.ordered(ids, found);
+    }
+
     @Transactional(readOnly = true)
     public List<ProductResponse> listByCategory(User user, String categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
-        
+        Category category = getCategoryReference(categoryId);
+
         List<Product> products = productRepository.findAllByCategory(category);
         return products.stream().map(this::toProductResponse).toList();
     }
@@ -113,8 +167,7 @@ public class ProductService {
     public ProductResponse update(User user, UpdateProductRequest request) {
         valdiationService.validate(request);
 
-        Category category = categoryRepository.findById(request.getCategoryId())
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+        Category category = getCategoryReference(request.getCategoryId());
 
         Product product = productRepository.findById(request.getProductId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
@@ -140,34 +193,117 @@ public class ProductService {
         productRepository.delete(product);
     }
 
-    @Transactional(readOnly = true)
-    public Page<ProductResponse> search(User user, SearchProductRequest request) {
-        Specification<Product> specification = (root, query, builder) -> {
+    private Specification<Product> toSpecification(User user, SearchProductRequest request) {
+        return (root, query, builder) -> {
             List<Predicate> predicates = new ArrayList<Predicate>();
 
             if (Objects.nonNull(request.getName())) {
                 predicates.add(builder.like(root.get("name"), "%" + request.getName() + "%"));
             }
 
+            if (Objects.nonNull(request.getCategoryId())) {
+                predicates.add(builder.equal(root.get("category").get("id"), request.getCategoryId()));
+            }
+
             if (Objects.nonNull(request.getPriceBuy())) {
                 predicates.add(builder.greaterThanOrEqualTo(root.get("priceBuy"), request.getPriceBuy()));
             }
 
+            if (Objects.nonNull(request.getPriceBuyMax())) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("priceBuy"), request.getPriceBuyMax()));
+            }
+
             if (Objects.nonNull(request.getPriceSell())) {
                 predicates.add(builder.greaterThanOrEqualTo(root.get("priceSell"), request.getPriceSell()));
             }
 
+            if (Objects.nonNull(request.getPriceSellMax())) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("priceSell"), request.getPriceSellMax()));
+            }
+
             if (Objects.nonNull(request.getStock())) {
                 predicates.add(builder.greaterThanOrEqualTo(root.get("stock"), request.getStock()));
             }
 
+            if (Objects.nonNull(request.getStockMax())) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("stock"), request.getStockMax()));
+            }
+
             return query.where(predicates.toArray(new Predicate[] {})).getRestriction();
         };
+    }
+
+    // Every sort has an index of its own and one behind category_id, both ending in id as the tie-breaker.
+    private Sort toSort(String sort) {
+        if (Objects.isNull(sort)) {
+            return CursorCodec.SORT;
+        }
+
+        Sort.Direction direction = sort.startsWith("-") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        String property = switch (sort.substring(direction.isDescending() ? 1 : 0)) {
+            case "price" -> "priceSell";
+            case "stock" -> "stock";
+            case "createdAt" -> "createdAt";
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sort");
+        };
+
+        return Sort.by(direction, property, "id");
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProductResponse> search(User user, SearchProductRequest request) {
+        Page<Product> products;
+        if (Objects.nonNull(request.getQuery())) {
+            // Ranked by relevance, the sort parameter does not apply.
+            products = productRepository.searchFullText(
+                request.getQuery(), request.getName(), idStorage.bind(request.getCategoryId()),
+                request.getPriceBuy(), request.getPriceBuyMax(), request.getPriceSell(), request.getPriceSellMax(), request.getStock(), request.getStockMax(),
+                PageRequest.of(request.getPage(), request.getSize())
+            );
+        } else {
+            products = productRepository.findAll(toSpecification(user, request), PageRequest.of(request.getPage(), request.getSize(), toSort(request.getSort())));
+        }
 
-        Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
-        Page<Product> products = productRepository.findAll(specification, pageable);
         List<ProductResponse> productResponses = products.getContent().stream().map(this::toProductResponse).toList();
 
-        return new PageImpl<>(productResponses, pageable, products.getTotalElements());
+        return new PageImpl<>(productResponses, products.getPageable(), products.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    public Window<ProductResponse> scroll(User user, SearchProductRequest request) {
+        if (Objects.nonNull(request.getQuery())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor paging is not supported for full-text search");
+        }
+
+        if (!CursorCodec.SORT.equals(toSort(request.getSort()))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor paging only supports the createdAt sort");
+        }
+
+        Window<Product> products = productRepository.findBy(toSpecification(user, request), query -> query
+            .sortBy(CursorCodec.SORT)
+            .limit(request.getSize())
+            .scroll(CursorCodec.decode(request.getCursor())));
+
+        return products.map(this::toProductResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public Window<ProductResponse> slice(User user, SearchProductRequest request) {
+        Window<Product> products = productRepository.findBy(toSpecification(user, request), query -> query
+            .sortBy(toSort(request.getSort()))
+            .limit(request.getSize())
+            .scroll(CursorCodec.offset(request.getPage(), request.getSize())));
+
+        return products.map(this::toProductResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public long approximateTotal(User user, SearchProductRequest request) {
+        String key = String.join("|", "products", request.getName(), request.getCategoryId(),
+            String.valueOf(request.getPriceBuy()), String.valueOf(request.getPriceBuyMax()),
+            String.valueOf(request.getPriceSell()), String.valueOf(request.getPriceSellMax()),
+            String.valueOf(request.getStock()), String.valueOf(request.getStockMax()));
+
+        return searchTotalCache.get(key, () -> productRepository.count(toSpecification(user, request)));
     }
 }
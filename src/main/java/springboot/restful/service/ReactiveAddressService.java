@@ -0,0 +1,121 @@
+package springboot.restful.service;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Mono;
+import springboot.restful.entity.Address;
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.User;
+import springboot.restful.model.AddressResponse;
+import springboot.restful.repository.ReactiveAddressRepository;
+import springboot.restful.repository.ReactiveContactRepository;
+import springboot.restful.request.CreateAddressRequest;
+import springboot.restful.request.UpdateAddressRequest;
+
+// AddressService over R2DBC, with the same validation and per-user rules.
+@Service
+public class ReactiveAddressService {
+
+    @Autowired
+    private ReactiveContactRepository reactiveContactRepository;
+
+    @Autowired
+    private ReactiveAddressRepository reactiveAddressRepository;
+
+    @Autowired
+    private ValdiationService valdiationService;
+
+    @Autowired
+    private TransactionalOperator reactiveTransactionalOperator;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    private AddressResponse toAddressResponse(Address address) {
+        return AddressResponse.builder()
+            .id(address.getId())
+            .street(address.getStreet())
+            .city(address.getCity())
+            .province(address.getProvince())
+            .country(address.getCountry())
+            .postalCode(address.getPostalCode())
+            .createdAt(address.getCreatedAt())
+            .updatedAt(address.getUpdatedAt())
+            .build();
+    }
+
+    private Mono<Contact> findContact(User user, String contactId) {
+        return reactiveContactRepository.findByUserIdAndId(user.getId(), contactId)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found")));
+    }
+
+    private Mono<Address> findAddress(Contact contact, String addressId) {
+        return reactiveAddressRepository.findByContactIdAndId(contact.getId(), addressId)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found")));
+    }
+
+    public Mono<AddressResponse> create(User user, CreateAddressRequest request) {
+        valdiationService.validate(request);
+
+        return findContact(user, request.getContactId())
+            .flatMap(contact -> {
+                Address address = new Address();
+                address.setId(idGenerator.next());
+                address.setStreet(request.getStreet());
+                address.setCity(request.getCity());
+                address.setProvince(request.getProvince());
+                address.setCountry(request.getCountry());
+                address.setPostalCode(request.getPostalCode());
+                address.setContact(contact);
+                address.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+                address.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+                return reactiveAddressRepository.insert(address).thenReturn(toAddressResponse(address));
+            })
+            .as(reactiveTransactionalOperator::transactional);
+    }
+
+    public Mono<AddressResponse> get(User user, String contactId, String addressId) {
+        return findContact(user, contactId)
+            .flatMap(contact -> findAddress(contact, addressId))
+            .map(this::toAddressResponse);
+    }
+
+    public Mono<AddressResponse> update(User user, UpdateAddressRequest request) {
+        valdiationService.validate(request);
+
+        return findContact(user, request.getContactId())
+            .flatMap(contact -> findAddress(contact, request.getAddressId())
+                .flatMap(address -> {
+                    address.setStreet(request.getStreet());
+                    address.setCity(request.getCity());
+                    address.setProvince(request.getProvince());
+                    address.setCountry(request.getCountry());
+                    address.setPostalCode(request.getPostalCode());
+                    address.setContact(contact);
+                    address.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+                    return reactiveAddressRepository.update(address).thenReturn(toAddressResponse(address));
+                }))
+            .as(reactiveTransactionalOperator::transactional);
+    }
+
+    public Mono<Void> delete(User user, String contactId, String addressId) {
+        return findContact(user, contactId)
+            .flatMap(contact -> findAddress(contact, addressId))
+            .flatMap(address -> reactiveAddressRepository.delete(contactId, address.getId()))
+            .as(reactiveTransactionalOperator::transactional);
+    }
+
+    public Mono<List<AddressResponse>> list(User user, String contactId) {
+        return findContact(user, contactId)
+            .flatMap(contact -> reactiveAddressRepository.findAllByContactId(contact.getId()).map(this::toAddressResponse).collectList());
+    }
+}
@@ -0,0 +1,125 @@
+package springboot.restful.service;
+
+import java.sql.Timestamp;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Mono;
+import springboot.restful.cache.ContactSuggestIndex;
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.User;
+import springboot.restful.model.ContactResponse;
+import springboot.restful.repository.ReactiveContactRepository;
+import springboot.restful.request.CreateContactRequest;
+import springboot.restful.request.SearchContactRequest;
+import springboot.restful.request.UpdateContactRequest;
+
+/**
+ * {@link ContactService} over R2DBC, with the same validation and per-user rules. Search is offset
+ * paging with a total only, and scans the user's contacts with LIKE instead of narrowing them through
+ * the trigram index first, which is blocking JDBC.
+ */
+@Service
+public class ReactiveContactService {
+
+    @Autowired
+    private ReactiveContactRepository reactiveContactRepository;
+
+    @Autowired
+    private ValdiationService valdiationService;
+
+    @Autowired
+    private TransactionalOperator reactiveTransactionalOperator;
+
+    @Autowired
+    private ContactSuggestIndex contactSuggestIndex;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    private ContactResponse toContactResponse(Contact contact) {
+        return ContactResponse.builder()
+            .id(contact.getId())
+            .firstname(contact.getFirstname())
+            .lastname(contact.getLastname())
+            .email(contact.getEmail())
+            .phone(contact.getPhone())
+            .createdAt(contact.getCreatedAt())
+            .updatedAt(contact.getUpdatedAt())
+            .build();
+    }
+
+    private Mono<Contact> find(User user, String id) {
+        return reactiveContactRepository.findByUserIdAndId(user.getId(), id)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found")));
+    }
+
+    public Mono<ContactResponse> create(User user, CreateContactRequest request) {
+        valdiationService.validate(request);
+
+        Contact contact = new Contact();
+        contact.setId(idGenerator.next());
+        contact.setFirstname(request.getFirstname());
+        contact.setLastname(request.getLastname());
+        contact.setEmail(request.getEmail());
+        contact.setPhone(request.getPhone());
+        contact.setUser(user);
+        contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        contact.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+        ContactResponse contactResponse = toContactResponse(contact);
+        return reactiveContactRepository.insert(contact)
+            .as(reactiveTransactionalOperator::transactional)
+            .then(Mono.fromRunnable(() -> contactSuggestIndex.put(user.getId(), contactResponse)))
+            .thenReturn(contactResponse);
+    }
+
+    public Mono<ContactResponse> get(User user, String id) {
+        return find(user, id).map(this::toContactResponse);
+    }
+
+    public Mono<ContactResponse> update(User user, UpdateContactRequest request) {
+        valdiationService.validate(request);
+
+        return find(user, request.getId())
+            .flatMap(contact -> {
+                contact.setFirstname(request.getFirstname());
+                contact.setLastname(request.getLastname());
+                contact.setEmail(request.getEmail());
+                contact.setPhone(request.getPhone());
+                contact.setUser(user);
+                contact.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+                return reactiveContactRepository.update(contact).thenReturn(toContactResponse(contact));
+            })
+            .as(reactiveTransactionalOperator::transactional)
+            .doOnNext(contactResponse -> contactSuggestIndex.put(user.getId(), contactResponse));
+    }
+
+    public Mono<Void> delete(User user, String id) {
+        return find(user, id)
+            .flatMap(contact -> reactiveContactRepository.delete(user.getId(), contact.getId()))
+            .as(reactiveTransactionalOperator::transactional)
+            .then(Mono.fromRunnable(() -> contactSuggestIndex.remove(user.getId(), id)));
+    }
+
+    public Mono<Page<ContactResponse>> search(User user, SearchContactRequest request) {
+        valdiationService.validate(request);
+
+        PageRequest pageable = PageRequest.of(request.getPage(), request.getSize());
+        return Mono.zip(
+                reactiveContactRepository.search(user.getId(), request.getName(), request.getEmail(), request.getPhone(), (int) pageable.getOffset(), pageable.getPageSize())
+                    .map(this::toContactResponse)
+                    .collectList(),
+                reactiveContactRepository.count(user.getId(), request.getName(), request.getEmail(), request.getPhone())
+            )
+            .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+}
@@ -2,20 +2,20 @@ package springboot.restful.service;
 
 import java.sql.Timestamp;
 import java.util.Objects;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import springboot.restful.cache.TokenCache;
 import springboot.restful.entity.User;
 import springboot.restful.model.UserResponse;
 import springboot.restful.repository.UserRepository;
 import springboot.restful.request.RegisterUserRequest;
 import springboot.restful.request.UpdateUserRequest;
-import springboot.restful.security.BCrypt;
 
 @Service
 public class UserService {
@@ -26,7 +26,19 @@ public class UserService {
     @Autowired
     private ValdiationService valdiationService;
 
-    @Transactional
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    // Like login, hashes with no transaction open; the email is checked again in the one that inserts.
     public void register(RegisterUserRequest request) {
         valdiationService.validate(request);
 
@@ -34,16 +46,24 @@ public class UserService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already registered!");
         }
 
-        // create user
-        User user = new User();
-        user.setId(UUID.randomUUID().toString());
-        user.setEmail(request.getEmail());
-        user.setPassword(BCrypt.hashpw(request.getPassword(), BCrypt.gensalt()));
-        user.setName(request.getName());
-        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
-        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        String password = passwordService.hash(request.getPassword());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.existsById(request.getEmail())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already registered!");
+            }
 
-        userRepository.save(user);
+            // create user
+            User user = new User();
+            user.setId(idGenerator.next());
+            user.setEmail(request.getEmail());
+            user.setPassword(password);
+            user.setName(request.getName());
+            user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+            userRepository.save(user);
+        });
     }
 
     public UserResponse get(User user) {
@@ -64,21 +84,32 @@ public class UserService {
         return get(user);
     }
 
-    @Transactional
+    // Hashes before the write, which runs in a transaction of its own and only touches the changed columns:
+    // the user is the copy resolved for the request, saving it whole could undo a concurrent change.
     public UserResponse update(User user, UpdateUserRequest request) {
         valdiationService.validate(request);
 
-        if (Objects.nonNull(request.getName())) {
-            user.setName(request.getName());
-            user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        if (Objects.isNull(request.getName()) && Objects.isNull(request.getPassword())) {
+            return get(user);
         }
 
-        if (Objects.nonNull(request.getPassword())) {
-            user.setPassword(BCrypt.hashpw(request.getPassword(), BCrypt.gensalt()));
-            user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
-        }
+        String password = Objects.nonNull(request.getPassword()) ? passwordService.hash(request.getPassword()) : null;
+        Timestamp updatedAt = new Timestamp(System.currentTimeMillis());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (Objects.nonNull(request.getName())) {
+                userRepository.updateName(user.getEmail(), request.getName(), updatedAt);
+            }
+            if (Objects.nonNull(password)) {
+                userRepository.updatePassword(user.getEmail(), password, updatedAt);
+            }
+            tokenCache.evictAfterWrite(user.getEmail(), user.getToken());
+        });
 
-        userRepository.save(user);
+        if (Objects.nonNull(request.getName())) {
+            user.setName(request.getName());
+        }
+        user.setUpdatedAt(updatedAt);
 
         return get(user);
     }
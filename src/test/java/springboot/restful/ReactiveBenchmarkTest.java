@@ -0,0 +1,188 @@
+package springboot.restful;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.User;
+import springboot.restful.repository.AddressRepository;
+import springboot.restful.repository.ContactRepository;
+import springboot.restful.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds {@code benchmark.connections} requests open at once against the servlet contact read and
+ * then against its reactive counterpart, and prints throughput and latency percentiles for each:
+ * {@code mvn test -Dtest=ReactiveBenchmarkTest -Dbenchmark.connections=10000}
+ * <p>
+ * {@code -Dbenchmark.seconds=20} changes the duration. Both the client and the server need a file
+ * descriptor per connection, raise {@code ulimit -n} above twice the connection count first. Where
+ * that is not possible, start the application on its own and point the client at it with
+ * {@code -Dbenchmark.base-url=http://localhost:8080}, so each process only needs one per connection.
+ * The server runs with the shipped {@code server.tomcat.max-connections}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark.connections", matches = "\\d+")
+public class ReactiveBenchmarkTest {
+
+    private static final String TOKEN = "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c74";
+
+    // Fixed so a separately started server that cached the token still finds the user on the next run.
+    private static final String USER_ID = "3b9e6f1d-2c4a-4d8e-a7b5-0e1f2a3c4d5e";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int threads;
+
+    @Value("${server.tomcat.max-connections:8192}")
+    private int maxConnections;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${app.r2dbc.pool.max-size:10}")
+    private int reactivePoolSize;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private String contactId;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAll();
+        contactRepository.deleteAll();
+        userRepository.deleteAll();
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        User user = new User();
+        user.setId(USER_ID);
+        user.setEmail("benchmark@gmail.com");
+        user.setPassword("not-used");
+        user.setName("Benchmark");
+        user.setToken(TOKEN);
+        user.setTokenExpiredAt(System.currentTimeMillis() + 3600000);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        userRepository.save(user);
+
+        Contact contact = new Contact();
+        contact.setId(UUID.randomUUID().toString());
+        contact.setFirstname("Ucup");
+        contact.setUser(user);
+        contact.setCreatedAt(now);
+        contact.setUpdatedAt(now);
+        contactRepository.save(contact);
+        contactId = contact.getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        contactRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void benchmarkConcurrentConnections() throws Exception {
+        int connections = Integer.getInteger("benchmark.connections");
+        Duration duration = Duration.ofSeconds(Long.getLong("benchmark.seconds", 20));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder().executor(executor).version(HttpClient.Version.HTTP_1_1).build();
+
+        System.out.printf("connections=%d duration=%d s tomcat-threads=%d tomcat-max-connections=%d jdbc-pool=%d r2dbc-pool=%d%n",
+            connections, duration.toSeconds(), threads, maxConnections, poolSize, reactivePoolSize);
+        for (String path : List.of("/api/contacts/", "/api/reactive/contacts/")) {
+            URI uri = URI.create(System.getProperty("benchmark.base-url", "http://localhost:" + port) + path + contactId);
+            assertEquals(200, client.send(request(uri), HttpResponse.BodyHandlers.discarding()).statusCode());
+
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            AtomicLong failures = new AtomicLong();
+            long end = System.nanoTime() + duration.toNanos();
+
+            // Every connection sends its next request as soon as the previous one completes
+            List<CompletableFuture<Void>> loops = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                loops.add(loop(client, uri, end, latencies, failures));
+            }
+            CompletableFuture.allOf(loops.toArray(CompletableFuture[]::new)).join();
+
+            report(path, latencies, failures.get(), duration);
+        }
+        executor.shutdown();
+    }
+
+    private CompletableFuture<Void> loop(HttpClient client, URI uri, long end, List<Long> latencies, AtomicLong failures) {
+        if (System.nanoTime() >= end) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.nanoTime();
+        return client.sendAsync(request(uri), HttpResponse.BodyHandlers.discarding())
+            .handle((response, exception) -> {
+                latencies.add(System.nanoTime() - start);
+                if (exception != null || response.statusCode() != 200) {
+                    failures.incrementAndGet();
+                }
+                return null;
+            })
+            .thenCompose(ignored -> loop(client, uri, end, latencies, failures));
+    }
+
+    private HttpRequest request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+            .header("X-API-TOKEN", TOKEN)
+            .header("Accept", "application/json")
+            .timeout(Duration.ofMinutes(1))
+            .GET()
+            .build();
+    }
+
+    private void report(String endpoint, List<Long> latencies, long failures, Duration duration) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+
+        System.out.printf("endpoint=%-24s requests/s=%-7d p50=%d ms p99=%d ms max=%d ms failures=%d%n",
+            endpoint, (long) (sorted.size() / (double) duration.toSeconds()),
+            percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1) / 1_000_000, failures);
+    }
+
+    private long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1)) / 1_000_000;
+    }
+}
@@ -0,0 +1,50 @@
+package springboot.restful;
+
+import java.util.Properties;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import com.mysql.cj.MysqlConnection;
+import com.mysql.cj.Query;
+import com.mysql.cj.interceptors.QueryInterceptor;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.Resultset;
+import com.mysql.cj.protocol.ServerSession;
+
+/**
+ * Adds {@link #latencyNanos} before every statement while {@link #enabled}, holding the connection
+ * like a slow query would. Registered through the driver's {@code queryInterceptors} property.
+ */
+public class SlowQueryInterceptor implements QueryInterceptor {
+
+    static volatile boolean enabled;
+
+    static volatile long latencyNanos;
+
+    @Override
+    public QueryInterceptor init(MysqlConnection connection, Properties properties, Log log) {
+        return this;
+    }
+
+    @Override
+    public <T extends Resultset> T preProcess(Supplier<String> sql, Query interceptedQuery) {
+        if (enabled) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean executeTopLevelOnly() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public <T extends Resultset> T postProcess(Supplier<String> sql, Query interceptedQuery, T originalResultSet, ServerSession serverSession) {
+        return originalResultSet;
+    }
+}
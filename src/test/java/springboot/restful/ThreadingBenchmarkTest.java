@@ -0,0 +1,246 @@
+package springboot.restful;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import springboot.restful.entity.Category;
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.Product;
+import springboot.restful.entity.User;
+import springboot.restful.repository.AddressRepository;
+import springboot.restful.repository.CategoryRepository;
+import springboot.restful.repository.ContactRepository;
+import springboot.restful.repository.ProductRepository;
+import springboot.restful.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Load against a database made slow by {@link SlowQueryInterceptor}: every client alternates a
+ * contact read, which queries the database, and a product read, served from the entity cache. Prints
+ * throughput and latency percentiles per endpoint. Opt-in, run it once per thread mode and compare:
+ * {@code mvn test -Dtest=ThreadingBenchmarkTest -Dbenchmark.clients=400}, and on a Java 21 JDK
+ * {@code mvn -Pvirtual-threads test} for virtual threads, which the Java 17 build cannot enable.
+ * <p>
+ * {@code -Dbenchmark.db-latency-ms=50} and {@code -Dbenchmark.seconds=20} change the load. With virtual
+ * threads the run fails when one was pinned to its carrier, recorded as {@code jdk.VirtualThreadPinned}.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.datasource.hikari.data-source-properties.queryInterceptors=springboot.restful.SlowQueryInterceptor"
+)
+@EnabledIfSystemProperty(named = "benchmark.clients", matches = "\\d+")
+public class ThreadingBenchmarkTest {
+
+    private static final String TOKEN = "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c74";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String contactId;
+
+    private String productId;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAll();
+        contactRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("benchmark@gmail.com");
+        user.setPassword("not-used");
+        user.setName("Benchmark");
+        user.setToken(TOKEN);
+        user.setTokenExpiredAt(System.currentTimeMillis() + 3600000);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        userRepository.save(user);
+
+        Contact contact = new Contact();
+        contact.setId(UUID.randomUUID().toString());
+        contact.setFirstname("Ucup");
+        contact.setUser(user);
+        contact.setCreatedAt(now);
+        contact.setUpdatedAt(now);
+        contactRepository.save(contact);
+        contactId = contact.getId();
+
+        Category category = new Category();
+        category.setId(UUID.randomUUID().toString());
+        category.setName("Laptop");
+        category.setCreatedAt(now);
+        category.setUpdatedAt(now);
+        categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Laptop Gaming");
+        product.setPriceBuy(100.0);
+        product.setPriceSell(120.0);
+        product.setStock(5);
+        product.setCategory(category);
+        product.setCreatedAt(now);
+        product.setUpdatedAt(now);
+        productRepository.save(product);
+        productId = product.getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SlowQueryInterceptor.enabled = false;
+        contactRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void benchmarkSlowDatabase() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients");
+        Duration latency = Duration.ofMillis(Long.getLong("benchmark.db-latency-ms", 50));
+        Duration duration = Duration.ofSeconds(Long.getLong("benchmark.seconds", 20));
+
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+        URI contact = URI.create("http://localhost:" + port + "/api/contacts/" + contactId);
+        URI product = URI.create("http://localhost:" + port + "/api/products/" + productId);
+
+        // Resolve the token and fill the entity cache before the database turns slow
+        assertEquals(200, send(client, contact));
+        assertEquals(200, send(client, product));
+
+        // Pinned virtual threads hold their carrier while the slow query runs, which defeats the mode.
+        AtomicInteger pinned = new AtomicInteger();
+        RecordingStream pinning = new RecordingStream();
+        if (virtualThreads) {
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20)).withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (pinned.getAndIncrement() < 5) {
+                    System.out.println("Pinned virtual thread: " + event.getStackTrace());
+                }
+            });
+            pinning.startAsync();
+        }
+
+        SlowQueryInterceptor.latencyNanos = latency.toNanos();
+        SlowQueryInterceptor.enabled = true;
+
+        List<Long> contactLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> productLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> failures = Collections.synchronizedList(new ArrayList<>());
+
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(executor.submit(() -> {
+                while (System.nanoTime() < end) {
+                    for (URI uri : List.of(contact, product)) {
+                        long start = System.nanoTime();
+                        int status = send(client, uri);
+                        long elapsed = System.nanoTime() - start;
+
+                        if (status != 200) {
+                            failures.add(status);
+                        }
+                        (uri == contact ? contactLatencies : productLatencies).add(elapsed);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        SlowQueryInterceptor.enabled = false;
+
+        System.out.printf("threads=%s clients=%d pool=%d db-latency=%d ms duration=%d s failures=%d%n",
+            virtualThreads ? "virtual" : "platform", clients, poolSize, latency.toMillis(), duration.toSeconds(), failures.size());
+        report("contact", contactLatencies, duration);
+        report("product", productLatencies, duration);
+
+        pinning.close();
+        if (virtualThreads) {
+            System.out.printf("pinned=%d%n", pinned.get());
+            assertEquals(0, pinned.get(), "Virtual threads were pinned, see the stack traces above");
+        }
+    }
+
+    private int send(HttpClient client, URI uri) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri).header("X-API-TOKEN", TOKEN).header("Accept", "application/json").GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception exception) {
+            return -1;
+        }
+    }
+
+    private void report(String endpoint, List<Long> latencies, Duration duration) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+
+        System.out.printf("endpoint=%-8s requests/s=%-7d p50=%d ms p99=%d ms max=%d ms%n",
+            endpoint, (long) (sorted.size() / (double) duration.toSeconds()),
+            percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1) / 1_000_000);
+    }
+
+    private long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1)) / 1_000_000;
+    }
+}
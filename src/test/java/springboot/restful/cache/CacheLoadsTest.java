@@ -0,0 +1,30 @@
+package springboot.restful.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+public class CacheLoadsTest {
+
+    @Test
+    void testFailedLoadIsRetried() {
+        AsyncCache<String, String> cache = Caffeine.newBuilder().buildAsync();
+
+        assertThrows(IllegalStateException.class, () -> CacheLoads.get(cache, "key", key -> { throw new IllegalStateException(); }));
+        assertEquals("value", CacheLoads.get(cache, "key", key -> "value"));
+    }
+
+    @Test
+    void testLoadFailingWithErrorIsRetried() {
+        AsyncCache<String, String> cache = Caffeine.newBuilder().buildAsync();
+
+        assertThrows(AssertionError.class, () -> CacheLoads.get(cache, "key", key -> { throw new AssertionError(); }));
+        // A future left incomplete would make this wait forever
+        assertEquals("value", assertTimeoutPreemptively(Duration.ofSeconds(5), () -> CacheLoads.get(cache, "key", key -> "value")));
+    }
+}
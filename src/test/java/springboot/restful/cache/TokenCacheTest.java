@@ -0,0 +1,103 @@
+package springboot.restful.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import springboot.restful.entity.User;
+
+public class TokenCacheTest {
+
+    private TokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        tokenCache = new TokenCache();
+        ReflectionTestUtils.setField(tokenCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenCache, "maximumSize", 10000L);
+        ReflectionTestUtils.setField(tokenCache, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(tokenCache, "negativeMaximumSize", 10000L);
+        ReflectionTestUtils.setField(tokenCache, "negativeTtl", Duration.ofSeconds(30));
+        tokenCache.init();
+    }
+
+    @Test
+    void testPutCachesUser() {
+        User user = user();
+
+        tokenCache.put(user.getToken(), user, tokenCache.generation(user.getToken()));
+
+        assertEquals("admin@gmail.com", tokenCache.get(user.getToken()).orElseThrow().getEmail());
+    }
+
+    @Test
+    void testPutRefusesUserReadBeforeEviction() {
+        User user = user();
+
+        // The resolver reads the row, then logout commits and evicts before the resolver caches it
+        long generation = tokenCache.generation(user.getToken());
+        tokenCache.evictAfterWrite(user.getEmail(), user.getToken());
+        tokenCache.put(user.getToken(), user, generation);
+
+        assertTrue(tokenCache.get(user.getToken()).isEmpty());
+
+        // A row read after the eviction is cached again
+        tokenCache.put(user.getToken(), user, tokenCache.generation(user.getToken()));
+
+        assertTrue(tokenCache.get(user.getToken()).isPresent());
+    }
+
+    @Test
+    void testPutRacingWithEvictionNeverOutlivesIt() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2000; i++) {
+                User user = user();
+                CyclicBarrier barrier = new CyclicBarrier(2);
+
+                long generation = tokenCache.generation(user.getToken());
+                CompletableFuture<Void> put = CompletableFuture.runAsync(() -> {
+                    await(barrier);
+                    tokenCache.put(user.getToken(), user, generation);
+                }, executor);
+                CompletableFuture<Void> evict = CompletableFuture.runAsync(() -> {
+                    await(barrier);
+                    tokenCache.evictAfterWrite(user.getEmail(), user.getToken());
+                }, executor);
+                CompletableFuture.allOf(put, evict).get();
+
+                assertTrue(tokenCache.get(user.getToken()).isEmpty(), "Token cached after its eviction in round " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setName("Admin Admin");
+        user.setToken(UUID.randomUUID().toString());
+        user.setTokenExpiredAt(System.currentTimeMillis() + Duration.ofDays(30).toMillis());
+        return user;
+    }
+
+    private void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package springboot.restful.controller;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import jakarta.persistence.EntityManagerFactory;
+
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.UUID;
@@ -49,6 +53,9 @@ public class AddressControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     void setUp() {
         addressRepository.deleteAll();
@@ -60,7 +67,7 @@ public class AddressControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -92,7 +99,7 @@ public class AddressControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -118,7 +125,7 @@ public class AddressControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -141,7 +148,7 @@ public class AddressControllerTest {
         mockMvc.perform(
                 get("/contacts/123456/addresses/notfound")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -173,7 +180,7 @@ public class AddressControllerTest {
         mockMvc.perform(
                 get("/contacts/" + contact.getId() + "/addresses/" + address.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -220,7 +227,7 @@ public class AddressControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -261,7 +268,7 @@ public class AddressControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -285,7 +292,7 @@ public class AddressControllerTest {
         mockMvc.perform(
                 delete("/contacts/" + contact.getId() + "/addresses/654321")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -317,7 +324,7 @@ public class AddressControllerTest {
         mockMvc.perform(
                 delete("/contacts/" + contact.getId() + "/addresses/" + address.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -336,7 +343,7 @@ public class AddressControllerTest {
         mockMvc.perform(
                 get("/contacts/notfound/addresses")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -369,7 +376,7 @@ public class AddressControllerTest {
         mockMvc.perform(
                 get("/contacts/" + contact.getId() + "/addresses")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -382,4 +389,156 @@ public class AddressControllerTest {
             });
     }
 
+    @Test
+    void testAddressStatementCount() throws Exception {
+        mockMvc.perform(
+                get("/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        CreateAddressRequest createRequest = new CreateAddressRequest();
+        createRequest.setStreet("Jalan Jenderal Basuki Rachmat");
+        createRequest.setCountry("Indonesia");
+        createRequest.setPostalCode("60261");
+
+        statistics.clear();
+        String addressId = objectMapper.readValue(mockMvc.perform(
+                post("/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(createRequest))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andReturn().getResponse().getContentAsString(), new TypeReference<WebResponse<AddressResponse>>() {}).getData().getId();
+        // The contact with its user, the lookup save() makes for an assigned id, the insert
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(
+                get("/contacts/123456/addresses/" + addressId)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+        // The address with its contact and user
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(
+                get("/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        UpdateAddressRequest updateRequest = new UpdateAddressRequest();
+        updateRequest.setStreet("Jalan Raya Darmo");
+        updateRequest.setCountry("Indonesia");
+        updateRequest.setPostalCode("60241");
+
+        statistics.clear();
+        mockMvc.perform(
+                put("/contacts/123456/addresses/" + addressId)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(updateRequest))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(
+                get("/contacts/123456/addresses/notfound")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals("Address not found", response.getErrors());
+            });
+        // Only a miss checks the contact on its own
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(
+                delete("/contacts/123456/addresses/" + addressId)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testAddressOfOtherUserNotFound() throws Exception {
+        Address address = new Address();
+        address.setId(UUID.randomUUID().toString());
+        address.setStreet("Jalan Jenderal Basuki Rachmat");
+        address.setCountry("Indonesia");
+        address.setPostalCode("60261");
+        address.setContact(contactRepository.findById("123456").orElseThrow());
+        address.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        address.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        addressRepository.save(address);
+
+        User other = new User();
+        other.setId(UUID.randomUUID().toString());
+        other.setEmail("other@gmail.com");
+        other.setPassword(BCrypt.hashpw("Other123", BCrypt.gensalt()));
+        other.setName("Other");
+        other.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72");
+        other.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
+        other.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        other.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userRepository.save(other);
+
+        for (String path : List.of("/contacts/123456/addresses/" + address.getId(), "/contacts/123456/addresses")) {
+            mockMvc.perform(
+                    get(path)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72")
+                )
+                .andExpectAll(
+                    status().isNotFound()
+                )
+                .andDo(result -> {
+                    WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                    assertEquals("Contact not found", response.getErrors());
+                });
+        }
+
+        mockMvc.perform(
+                delete("/contacts/123456/addresses/" + address.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            );
+        assertTrue(addressRepository.existsById(address.getId()));
+    }
 }
@@ -0,0 +1,171 @@
+package springboot.restful.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import springboot.restful.entity.User;
+import springboot.restful.model.TokenResponse;
+import springboot.restful.model.UserResponse;
+import springboot.restful.model.WebResponse;
+import springboot.restful.repository.AddressRepository;
+import springboot.restful.repository.ContactRepository;
+import springboot.restful.repository.UserRepository;
+import springboot.restful.request.LoginUserRequest;
+import springboot.restful.security.BCrypt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@SpringBootTest(properties = {
+    "app.auth.token-mode=signed",
+    "app.auth.token-secret=TestSecretTestSecretTestSecret00"
+})
+@AutoConfigureMockMvc
+public class AuthControllerSignedTokenTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAll();
+        contactRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
+        user.setName("Admin Admin");
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userRepository.save(user);
+    }
+
+    private String login() throws Exception {
+        LoginUserRequest request = new LoginUserRequest();
+        request.setEmail("admin@gmail.com");
+        request.setPassword("Admin123");
+
+        String body = mockMvc.perform(
+                post("/auth/login")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andReturn().getResponse().getContentAsString();
+
+        WebResponse<TokenResponse> response = objectMapper.readValue(body, new TypeReference<>() {});
+        return response.getData().getToken();
+    }
+
+    @Test
+    void testSignedTokenSuccess() throws Exception {
+        String token = login();
+        assertTrue(token.startsWith("v1."));
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", token)
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<UserResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals("admin@gmail.com", response.getData().getEmail());
+            });
+    }
+
+    @Test
+    void testSignedTokenTampered() throws Exception {
+        String token = login();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", tampered)
+            )
+            .andExpectAll(
+                status().isUnauthorized()
+            );
+    }
+
+    @Test
+    void testSignedTokenRevokedOnLogout() throws Exception {
+        String token = login();
+
+        mockMvc.perform(
+                delete("/auth/logout")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", token)
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", token)
+            )
+            .andExpectAll(
+                status().isUnauthorized()
+            );
+    }
+
+    @Test
+    void testSignedTokenReplacedOnLogin() throws Exception {
+        String first = login();
+        String second = login();
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", first)
+            )
+            .andExpectAll(
+                status().isUnauthorized()
+            );
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", second)
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+    }
+}
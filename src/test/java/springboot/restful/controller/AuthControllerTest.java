@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,6 +20,7 @@ import springboot.restful.repository.ContactRepository;
 import springboot.restful.repository.UserRepository;
 import springboot.restful.request.LoginUserRequest;
 import springboot.restful.security.BCrypt;
+import springboot.restful.service.PasswordService;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -47,6 +49,12 @@ public class AuthControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @BeforeEach
     void setUp() {
         addressRepository.deleteAll();
@@ -150,6 +158,100 @@ public class AuthControllerTest {
             });
     }
 
+    @Test
+    void testLoginRehashesPasswordWithLowerCost() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt(4)));
+        user.setName("Admin Admin");
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+        userRepository.save(user);
+
+        LoginUserRequest request = new LoginUserRequest();
+        request.setEmail("admin@gmail.com");
+        request.setPassword("Admin123");
+
+        mockMvc.perform(
+            post("/auth/login")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                User userDB = userRepository.findById(request.getEmail()).orElse(null);
+                assertNotNull(userDB);
+                assertNotEquals(user.getPassword(), userDB.getPassword());
+                assertTrue(userDB.getPassword().startsWith(String.format("$2a$%02d$", passwordService.getLogRounds())));
+                assertTrue(BCrypt.checkpw("Admin123", userDB.getPassword()));
+            });
+    }
+
+    @Test
+    void testLoginKeepsPasswordWithHigherCost() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt(passwordService.getLogRounds() + 1)));
+        user.setName("Admin Admin");
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+        userRepository.save(user);
+
+        LoginUserRequest request = new LoginUserRequest();
+        request.setEmail("admin@gmail.com");
+        request.setPassword("Admin123");
+
+        mockMvc.perform(
+            post("/auth/login")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                User userDB = userRepository.findById(request.getEmail()).orElse(null);
+                assertNotNull(userDB);
+                assertEquals(user.getPassword(), userDB.getPassword());
+            });
+    }
+
+    @Test
+    void testLoginRehashKeepsConcurrentPasswordChange() throws Exception {
+        String checked = BCrypt.hashpw("Admin123", BCrypt.gensalt(4));
+        String changed = BCrypt.hashpw("Changed123", BCrypt.gensalt(4));
+
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(changed);
+        user.setName("Admin Admin");
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+        userRepository.save(user);
+
+        // The rehash computed from the hash login checked loses against the password changed meanwhile
+        String rehashed = passwordService.hash("Admin123");
+        int updated = transactionTemplate.execute(status -> userRepository.updatePasswordIfUnchanged(user.getEmail(), rehashed, checked));
+
+        assertEquals(0, updated);
+        assertEquals(changed, userRepository.findById(user.getEmail()).orElseThrow().getPassword());
+
+        updated = transactionTemplate.execute(status -> userRepository.updatePasswordIfUnchanged(user.getEmail(), rehashed, changed));
+
+        assertEquals(1, updated);
+        assertEquals(rehashed, userRepository.findById(user.getEmail()).orElseThrow().getPassword());
+    }
+
     @Test
     void testLogoutFailed() throws Exception {
         mockMvc.perform(
@@ -173,7 +275,7 @@ public class AuthControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -187,7 +289,7 @@ public class AuthControllerTest {
         mockMvc.perform(
             delete("/auth/logout")
                 .accept(MediaType.APPLICATION_JSON)
-                .header("X-API-TOKEN", "TestToken")
+                .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -204,4 +306,51 @@ public class AuthControllerTest {
                 assertNull(userDB.getTokenExpiredAt());
             });
     }
+
+    @Test
+    void testLogoutRevokesCachedToken() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
+        user.setName("Admin Admin");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
+        user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+        userRepository.save(user);
+
+        mockMvc.perform(
+            get("/users/current")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        mockMvc.perform(
+            delete("/auth/logout")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        mockMvc.perform(
+            get("/users/current")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isUnauthorized()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNotNull(response.getErrors());
+            });
+    }
 }
@@ -53,7 +53,7 @@ public class CategoryControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -71,7 +71,7 @@ public class CategoryControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -93,7 +93,7 @@ public class CategoryControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -112,7 +112,7 @@ public class CategoryControllerTest {
         mockMvc.perform(
                 get("/categories/123456")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -137,7 +137,7 @@ public class CategoryControllerTest {
         mockMvc.perform(
                 get("/categories/" + category.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -161,7 +161,7 @@ public class CategoryControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -191,7 +191,7 @@ public class CategoryControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -210,7 +210,7 @@ public class CategoryControllerTest {
         mockMvc.perform(
                 delete("/categories/notfound")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -235,7 +235,7 @@ public class CategoryControllerTest {
         mockMvc.perform(
                 delete("/categories/" + category.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -1,33 +1,56 @@
 package springboot.restful.controller;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 
+import springboot.restful.cache.ContactSuggestIndex;
+import springboot.restful.entity.Address;
 import springboot.restful.entity.Contact;
 import springboot.restful.entity.User;
 import springboot.restful.model.*;
 import springboot.restful.repository.AddressRepository;
 import springboot.restful.repository.ContactRepository;
+import springboot.restful.repository.ContactTrigramIndexer;
 import springboot.restful.repository.UserRepository;
 import springboot.restful.request.CreateContactRequest;
+import springboot.restful.request.MultiGetRequest;
 import springboot.restful.request.UpdateContactRequest;
 import springboot.restful.security.BCrypt;
+import springboot.restful.service.ContactService;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import jakarta.persistence.EntityManagerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -48,6 +71,24 @@ public class ContactControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContactTrigramIndexer contactTrigramIndexer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ContactSuggestIndex contactSuggestIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ContactService contactService;
+
     @BeforeEach
     void setUp() {
         addressRepository.deleteAll();
@@ -59,7 +100,7 @@ public class ContactControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -80,7 +121,7 @@ public class ContactControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -105,7 +146,7 @@ public class ContactControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -127,7 +168,7 @@ public class ContactControllerTest {
         mockMvc.perform(
                 get("/contacts/123456")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -158,7 +199,7 @@ public class ContactControllerTest {
         mockMvc.perform(
                 get("/contacts/" + contact.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -188,7 +229,7 @@ public class ContactControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -227,7 +268,7 @@ public class ContactControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -249,7 +290,7 @@ public class ContactControllerTest {
         mockMvc.perform(
                 delete("/contacts/123456")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -280,7 +321,7 @@ public class ContactControllerTest {
         mockMvc.perform(
                 delete("/contacts/" + contact.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -298,7 +339,7 @@ public class ContactControllerTest {
         mockMvc.perform(
                 get("/contacts")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -335,7 +376,7 @@ public class ContactControllerTest {
                 get("/contacts")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("name", "Contact")
             )
             .andExpectAll(
@@ -355,7 +396,7 @@ public class ContactControllerTest {
                 get("/contacts")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("email", "contact@gmail.com")
             )
             .andExpectAll(
@@ -375,7 +416,7 @@ public class ContactControllerTest {
                 get("/contacts")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("phone", "08123456789")
             )
             .andExpectAll(
@@ -395,7 +436,7 @@ public class ContactControllerTest {
                 get("/contacts")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("name", "Contact")
                     .queryParam("page", "1")
             )
@@ -412,4 +453,719 @@ public class ContactControllerTest {
                 assertEquals(10, response.getPaging().getSize());
             });
     }
+
+    @Test
+    void testSearchContactByCursor() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+        long now = System.currentTimeMillis() / 1000 * 1000;
+
+        for (int i = 1; i <= 25; i++) {
+            Contact contact = new Contact();
+            contact.setId(UUID.randomUUID().toString());
+            contact.setFirstname("Contact " + i);
+            contact.setLastname("bin Otong");
+            contact.setEmail("contact@gmail.com");
+            contact.setPhone("08123456789" + i);
+            contact.setUser(user);
+            // Several contacts share a created_at so the id tie-breaker is exercised
+            contact.setCreatedAt(new Timestamp(now + (i % 3) * 1000));
+            contact.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            contactRepository.save(contact);
+        }
+
+        Set<String> ids = new HashSet<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = "";
+
+        do {
+            MvcResult result = mockMvc.perform(
+                    get("/contacts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                        .queryParam("name", "Contact")
+                        .queryParam("cursor", cursor)
+                )
+                .andExpectAll(
+                    status().isOk()
+                )
+                .andReturn();
+
+            WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+            assertNull(response.getErrors());
+            assertNull(response.getPaging().getTotalPage());
+            assertEquals(10, response.getPaging().getSize());
+            response.getData().forEach(contact -> ids.add(contact.getId()));
+            pageSizes.add(response.getData().size());
+            cursor = response.getPaging().getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        assertEquals(25, ids.size());
+    }
+
+    @Test
+    void testSearchContactInvalidCursor() throws Exception {
+        mockMvc.perform(
+                get("/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("cursor", "not-a-cursor")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNotNull(response.getErrors());
+            });
+    }
+
+    @Test
+    void testSearchContactTrigramMatchesLike() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+
+        List<String[]> names = List.of(
+            new String[] { "Budi", "Santoso", "budi.santoso@example.com", "081234567890" },
+            new String[] { "José", "Álvarez", "jose@example.com", "082111222333" },
+            new String[] { "Johann", "Strauß", "strauss@example.org", "083444555666" },
+            new String[] { "Ani", null, "ani@sample.net", null },
+            new String[] { "SANTI", "Wijaya", "santi_w@example.com", "0855" },
+            new String[] { "Back", "Slash", "back\\slash_x@example.com", null }
+        );
+        for (String[] name : names) {
+            Contact contact = new Contact();
+            contact.setId(UUID.randomUUID().toString());
+            contact.setFirstname(name[0]);
+            contact.setLastname(name[1]);
+            contact.setEmail(name[2]);
+            contact.setPhone(name[3]);
+            contact.setUser(user);
+            contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            contact.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            contactRepository.save(contact);
+        }
+
+        Contact renamed = contactRepository.findAll().get(0);
+        renamed.setLastname("Renamed");
+        contactRepository.save(renamed);
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact_trigrams WHERE contact_id = ? AND field = 1 AND trigram = 'ren'", Integer.class, renamed.getId()));
+        assertEquals(List.of("med"), jdbcTemplate.queryForList("SELECT trigram FROM contact_trigrams WHERE contact_id = ? AND field = 1 AND trigram NOT IN ('ren', 'ena', 'nam', 'ame')", String.class, renamed.getId()));
+
+        List<String[]> searches = List.of(
+            new String[] { "name", "santo" },
+            new String[] { "name", "SANT" },
+            new String[] { "name", "jose" },
+            new String[] { "name", "alva" },
+            new String[] { "name", "strau" },
+            new String[] { "name", "an" },
+            new String[] { "name", "an%so" },
+            new String[] { "name", "renamed" },
+            new String[] { "name", "nobody" },
+            new String[] { "email", "example.com" },
+            new String[] { "email", "i_w" },
+            new String[] { "email", "ti\\_w" },
+            new String[] { "email", "k\\sl" },
+            new String[] { "email", "k\\_" },
+            new String[] { "phone", "4567" }
+        );
+        for (String[] search : searches) {
+            // Hibernate doubles backslashes in LIKE patterns on MySQL, so the expectation does the same
+            String like = "%" + search[1].replace("\\", "\\\\") + "%";
+            List<String> expected = "name".equals(search[0])
+                ? jdbcTemplate.queryForList("SELECT id FROM contacts WHERE user_id = ? AND (firstname LIKE ? OR lastname LIKE ?)", String.class, user.getId(), like, like)
+                : jdbcTemplate.queryForList("SELECT id FROM contacts WHERE user_id = ? AND " + search[0] + " LIKE ?", String.class, user.getId(), like);
+
+            mockMvc.perform(
+                    get("/contacts")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                        .queryParam(search[0], search[1])
+                        .queryParam("size", "100")
+                )
+                .andExpectAll(
+                    status().isOk()
+                )
+                .andDo(result -> {
+                    WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                    assertNull(response.getErrors());
+                    assertEquals(new HashSet<>(expected), response.getData().stream().map(ContactResponse::getId).collect(Collectors.toSet()), search[1]);
+                });
+        }
+    }
+
+    @Test
+    void testSearchContactCreatedBeforeTrigramIndex() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+
+        // Rows written without the entity listeners have no trigrams, like contacts from before the upgrade
+        List<String> ids = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        for (String id : ids) {
+            jdbcTemplate.update("INSERT INTO contacts (id, firstname, email, user_id) VALUES (?, 'Legacy', 'legacy@example.com', ?)", id, user.getId());
+        }
+
+        String backfill = Files.readAllLines(Path.of("database.sql")).stream()
+            .filter(line -> line.startsWith("INSERT IGNORE INTO contact_trigram_pending"))
+            .findFirst()
+            .orElseThrow();
+        jdbcTemplate.update(backfill.substring(0, backfill.length() - 1));
+
+        // Found while queued, and again once the indexer has built their trigrams
+        assertEquals(new HashSet<>(ids), searchIds("name", "egac"));
+        contactTrigramIndexer.indexPending();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact_trigram_pending", Long.class));
+        assertEquals(new HashSet<>(ids), searchIds("name", "egac"));
+        assertEquals(new HashSet<>(ids), searchIds("email", "legacy@"));
+    }
+
+    @Test
+    void testIndexPendingSkipsClaimedContacts() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            String id = UUID.randomUUID().toString();
+            jdbcTemplate.update("INSERT INTO contacts (id, firstname, user_id) VALUES (?, 'Ucup', ?)", id, user.getId());
+            jdbcTemplate.update("INSERT INTO contact_trigram_pending (user_id, contact_id) VALUES (?, ?)", user.getId(), id);
+        }
+
+        // Another indexer holds the first pending contact
+        CompletableFuture<String> claimed = new CompletableFuture<>();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            claimed.complete(jdbcTemplate.queryForObject(
+                "SELECT c.id FROM contact_trigram_pending p JOIN contacts c ON c.id = p.contact_id ORDER BY p.contact_id LIMIT 1 FOR UPDATE",
+                String.class));
+            release.join();
+        }));
+
+        Object batchSize = ReflectionTestUtils.getField(contactTrigramIndexer, "batchSize");
+        ReflectionTestUtils.setField(contactTrigramIndexer, "batchSize", 1);
+        try {
+            String held = claimed.join();
+            contactTrigramIndexer.indexPending();
+
+            assertEquals(List.of(held), jdbcTemplate.queryForList("SELECT contact_id FROM contact_trigram_pending", String.class));
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT contact_id) FROM contact_trigrams WHERE user_id = ?", Long.class, user.getId()));
+        } finally {
+            ReflectionTestUtils.setField(contactTrigramIndexer, "batchSize", batchSize);
+            release.complete(null);
+            holder.join();
+        }
+    }
+
+    @Test
+    void testSuggestContact() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+
+        String[][] names = { { "Ucup", "bin Otong" }, { "Úrsula", "Corberó" }, { "Budi", "Ucupan" }, { "Joko", "Widodo" } };
+        List<String> ids = new ArrayList<>();
+        for (String[] name : names) {
+            Contact contact = new Contact();
+            contact.setId(UUID.randomUUID().toString());
+            contact.setFirstname(name[0]);
+            contact.setLastname(name[1]);
+            contact.setEmail(name[0].toLowerCase() + "@gmail.com");
+            contact.setPhone("081234567890");
+            contact.setUser(user);
+            contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            contact.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            contactRepository.save(contact);
+            ids.add(contact.getId());
+        }
+
+        assertEquals(Set.of(ids.get(0), ids.get(1), ids.get(2)), suggest("U", 10));
+        assertEquals(Set.of(ids.get(0), ids.get(2)), suggest("ucup", 10));
+        assertEquals(1, suggest("ucup", 1).size());
+        assertEquals(Set.of(ids.get(3)), suggest("joko@", 10));
+
+        // Writes through the service are visible to the next suggestion
+        UpdateContactRequest request = new UpdateContactRequest();
+        request.setFirstname("Ucok");
+        request.setLastname("Widodo");
+        request.setEmail("ucok@gmail.com");
+        request.setPhone("081234567890");
+
+        mockMvc.perform(
+                put("/contacts/" + ids.get(3))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpect(status().isOk());
+
+        mockMvc.perform(
+                delete("/contacts/" + ids.get(0))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpect(status().isOk());
+
+        assertEquals(Set.of(ids.get(2), ids.get(3)), suggest("uc", 10));
+        assertEquals(Set.of(), suggest("joko", 10));
+    }
+
+    @Test
+    void testSuggestContactReweighsAndReloads() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+        AsyncCache<?, ?> cache = (AsyncCache<?, ?>) ReflectionTestUtils.getField(contactSuggestIndex, "cache");
+
+        Contact contact = new Contact();
+        contact.setId(UUID.randomUUID().toString());
+        contact.setFirstname("Ucup");
+        contact.setUser(user);
+        contactRepository.save(contact);
+        assertEquals(Set.of(contact.getId()), suggest("ucup", 10));
+
+        // Writes after the load are weighed, not only the contacts seen by the load
+        cache.synchronous().cleanUp();
+        long weight = cache.synchronous().policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        Contact other = new Contact();
+        other.setId(UUID.randomUUID().toString());
+        other.setFirstname("Budi");
+        other.setUser(user);
+        contactRepository.save(other);
+        cache.synchronous().cleanUp();
+        assertEquals(weight + 1, cache.synchronous().policy().eviction().orElseThrow().weightedSize().orElseThrow());
+
+        // A contact written by another instance shows up once the index reaches its maximum age
+        String id = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO contacts (id, firstname, user_id) VALUES (?, 'Ucok', ?)", id, user.getId());
+        assertEquals(Set.of(), suggest("ucok", 10));
+
+        Object maxAge = ReflectionTestUtils.getField(contactSuggestIndex, "maxAge");
+        ReflectionTestUtils.setField(contactSuggestIndex, "maxAge", Duration.ZERO);
+        try {
+            // The age is checked when an entry is read, so this read still gets the old index and expires it
+            assertEquals(Set.of(), suggest("ucok", 10));
+            assertEquals(Set.of(id), suggest("ucok", 10));
+        } finally {
+            ReflectionTestUtils.setField(contactSuggestIndex, "maxAge", maxAge);
+        }
+    }
+
+    @Test
+    void testBulkCreateContactReportsFailedChunk() throws Exception {
+        List<CreateContactRequest> requests = List.of(
+            CreateContactRequest.builder().firstname("Ucup").build(),
+            CreateContactRequest.builder().firstname("Budi").build(),
+            CreateContactRequest.builder().firstname("Joko").build(),
+            CreateContactRequest.builder().firstname("Broken").build(),
+            CreateContactRequest.builder().firstname("Ani").build()
+        );
+
+        Object chunkSize = ReflectionTestUtils.getField(contactService, "bulkChunkSize");
+        ReflectionTestUtils.setField(contactService, "bulkChunkSize", 2);
+        jdbcTemplate.execute("CREATE TRIGGER contacts_broken BEFORE INSERT ON contacts FOR EACH ROW "
+            + "IF NEW.firstname = 'Broken' THEN SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Broken contact'; END IF");
+        try {
+            MvcResult result = mockMvc.perform(
+                    post("/contacts/bulk")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests))
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                )
+                .andExpectAll(
+                    status().isOk()
+                )
+                .andReturn();
+
+            WebResponse<List<BulkItemResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+            // The second chunk, Joko and Broken, is rolled back as a whole
+            assertNull(response.getErrors());
+            assertEquals(5, response.getData().size());
+            for (int index : new int[] { 0, 1, 4 }) {
+                assertNotNull(response.getData().get(index).getId());
+                assertNull(response.getData().get(index).getErrors());
+            }
+            for (int index : new int[] { 2, 3 }) {
+                assertEquals(index, response.getData().get(index).getIndex());
+                assertNull(response.getData().get(index).getId());
+                assertNotNull(response.getData().get(index).getErrors());
+            }
+            assertEquals(3, contactRepository.count());
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact_trigram_pending", Long.class));
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER contacts_broken");
+            ReflectionTestUtils.setField(contactService, "bulkChunkSize", chunkSize);
+        }
+    }
+
+    @Test
+    void testBulkCreateContact() throws Exception {
+        List<CreateContactRequest> requests = List.of(
+            CreateContactRequest.builder().firstname("Ucup").lastname("bin Otong").email("ucup@gmail.com").phone("081234567890").build(),
+            CreateContactRequest.builder().firstname("").email("not-an-email").build(),
+            CreateContactRequest.builder().firstname("Budi").build()
+        );
+
+        MvcResult result = mockMvc.perform(
+                post("/contacts/bulk")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(requests))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andReturn();
+
+        WebResponse<List<BulkItemResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+        assertNull(response.getErrors());
+        assertEquals(3, response.getData().size());
+        assertNotNull(response.getData().get(0).getId());
+        assertNull(response.getData().get(1).getId());
+        assertNotNull(response.getData().get(1).getErrors());
+        assertEquals(2, response.getData().get(2).getIndex());
+        assertEquals(2, contactRepository.count());
+
+        // Bulk inserts skip the entity listeners, the search and suggest indexes are maintained by the service
+        assertEquals(Set.of(response.getData().get(0).getId()), suggest("ucup", 10));
+
+        contactTrigramIndexer.indexPending();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact_trigram_pending", Long.class));
+        assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact_trigrams WHERE contact_id = ?", Long.class, response.getData().get(0).getId()) > 0);
+
+        String ndjson = objectMapper.writeValueAsString(requests.get(2)) + "\n"
+            + objectMapper.writeValueAsString(requests.get(0)) + "\n"
+            + "{\"firstname\": \n";
+
+        mockMvc.perform(
+                post("/contacts/bulk")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(ndjson)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(ndjsonResult -> {
+                WebResponse<List<BulkItemResponse>> ndjsonResponse = objectMapper.readValue(ndjsonResult.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(3, ndjsonResponse.getData().size());
+                assertNotNull(ndjsonResponse.getData().get(1).getId());
+                assertEquals(2, ndjsonResponse.getData().get(2).getIndex());
+                assertNotNull(ndjsonResponse.getData().get(2).getErrors());
+            });
+
+        assertEquals(4, contactRepository.count());
+
+        mockMvc.perform(
+                get("/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("name", "Otong")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(searchResult -> {
+                WebResponse<List<ContactResponse>> searchResponse = objectMapper.readValue(searchResult.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(2, searchResponse.getData().size());
+            });
+    }
+
+    @Test
+    void testGetAndSearchContactWithAddresses() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+
+        for (int i = 0; i < 12; i++) {
+            Contact contact = new Contact();
+            contact.setId("include-" + (char) ('a' + i));
+            contact.setFirstname("Include " + i);
+            contact.setUser(user);
+            contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            contact.setUpdatedAt(contact.getCreatedAt());
+            contactRepository.save(contact);
+
+            for (int j = 0; j < i % 3; j++) {
+                Address address = new Address();
+                address.setId(contact.getId() + "-" + j);
+                address.setStreet("Street " + j);
+                address.setCountry("Indonesia");
+                address.setPostalCode("12345");
+                address.setContact(contact);
+                address.setCreatedAt(contact.getCreatedAt());
+                address.setUpdatedAt(contact.getCreatedAt());
+                addressRepository.save(address);
+            }
+        }
+
+        mockMvc.perform(
+                get("/contacts/include-a")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getData().getAddresses());
+            });
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(
+                get("/contacts/include-c")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("include", "addresses")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(Set.of("include-c-0", "include-c-1"), response.getData().getAddresses().stream().map(AddressResponse::getId).collect(Collectors.toSet()));
+                // The contact, its eagerly fetched user and its addresses
+                assertEquals(3, statistics.getPrepareStatementCount());
+            });
+
+        statistics.clear();
+
+        mockMvc.perform(
+                get("/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("size", "100")
+                    .queryParam("include", "addresses")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(12, response.getData().size());
+                for (ContactResponse contact : response.getData()) {
+                    int i = contact.getId().charAt(contact.getId().length() - 1) - 'a';
+                    assertEquals(i % 3, contact.getAddresses().size(), contact.getId());
+                }
+                // The page, the user and one query for the addresses of all 12 contacts; no count, the page is not full
+                assertEquals(3, statistics.getPrepareStatementCount());
+            });
+
+        mockMvc.perform(
+                get("/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("cursor", "")
+                    .queryParam("size", "5")
+                    .queryParam("include", "addresses")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(5, response.getData().size());
+                assertTrue(response.getData().stream().allMatch(contact -> Objects.nonNull(contact.getAddresses())));
+            });
+
+        mockMvc.perform(
+                get("/contacts/include-a")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("include", "phones")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            );
+    }
+
+    @Test
+    void testMultiGetContact() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+
+        User other = new User();
+        other.setId(UUID.randomUUID().toString());
+        other.setEmail("other@gmail.com");
+        other.setPassword(BCrypt.hashpw("Other123", BCrypt.gensalt()));
+        other.setName("Other");
+        other.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        other.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userRepository.save(other);
+
+        for (int i = 0; i < 4; i++) {
+            Contact contact = new Contact();
+            contact.setId("mget-" + i);
+            contact.setFirstname("Mget " + i);
+            contact.setUser(i == 3 ? other : user);
+            contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            contact.setUpdatedAt(contact.getCreatedAt());
+            contactRepository.save(contact);
+        }
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(
+                post("/contacts/_mget")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new MultiGetRequest(List.of("mget-2", "Mget-3", "NotFound", "MGET-0", "Mget-2"))))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<MultiGetResponse<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                // Ids match in any case, like they do in the query
+                assertEquals(List.of("mget-2", "mget-0"), response.getData().getItems().stream().map(ContactResponse::getId).toList());
+                assertEquals("Mget 2", response.getData().getItems().get(0).getFirstname());
+                // Another user's contact is reported like one that does not exist
+                assertEquals(List.of("Mget-3", "NotFound"), response.getData().getMissing());
+
+                // The contacts joined with their user
+                assertEquals(1, statistics.getPrepareStatementCount());
+            });
+
+        mockMvc.perform(
+                post("/contacts/_mget")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{}")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            );
+    }
+
+    @Test
+    void testExportContact() throws Exception {
+        User user = userRepository.findById("admin@gmail.com").orElseThrow();
+
+        for (int i = 0; i < 3; i++) {
+            Contact contact = new Contact();
+            contact.setId("export-" + i);
+            contact.setFirstname("Export " + i);
+            contact.setEmail("export" + i + "@gmail.com");
+            contact.setUser(user);
+            contact.setCreatedAt(new Timestamp(System.currentTimeMillis() + i * 1000L));
+            contact.setUpdatedAt(contact.getCreatedAt());
+            contactRepository.save(contact);
+
+            for (int j = 0; j < i; j++) {
+                Address address = new Address();
+                address.setId("export-" + i + "-" + j);
+                address.setStreet("Street " + j);
+                address.setCountry("Indonesia");
+                address.setPostalCode("12345");
+                address.setContact(contact);
+                address.setCreatedAt(contact.getCreatedAt());
+                address.setUpdatedAt(contact.getCreatedAt());
+                addressRepository.save(address);
+            }
+        }
+
+        mockMvc.perform(
+                get("/contacts/export")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk(),
+                content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            )
+            .andDo(result -> {
+                String[] lines = result.getResponse().getContentAsString().split("\n");
+
+                assertEquals(3, lines.length);
+                for (int i = 0; i < 3; i++) {
+                    ContactResponse contact = objectMapper.readValue(lines[i], ContactResponse.class);
+                    assertEquals("export-" + i, contact.getId());
+                    assertEquals(i, contact.getAddresses().size());
+                }
+            });
+
+        mockMvc.perform(
+                get("/contacts/export")
+                    .queryParam("format", "csv")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk(),
+                content().contentTypeCompatibleWith("text/csv")
+            )
+            .andDo(result -> {
+                List<String> lines = result.getResponse().getContentAsString().lines().toList();
+
+                assertEquals("id,firstname,lastname,email,phone,addressId,street,city,province,country,postalCode", lines.get(0));
+                assertEquals("export-0,\"Export 0\",,export0@gmail.com,,,,,,,", lines.get(1));
+                assertEquals(1 + 1 + 1 + 2, lines.size());
+                assertTrue(lines.get(4).startsWith("export-2,\"Export 2\",,export2@gmail.com,,export-2-1,\"Street 1\""));
+            });
+
+        mockMvc.perform(
+                get("/contacts/export")
+                    .queryParam("format", "xml")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            );
+    }
+
+    private Set<String> searchIds(String field, String term) throws Exception {
+        MvcResult result = mockMvc.perform(
+                get("/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam(field, term)
+                    .queryParam("size", "100")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andReturn();
+
+        WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+        assertNull(response.getErrors());
+
+        return response.getData().stream().map(ContactResponse::getId).collect(Collectors.toSet());
+    }
+
+    private Set<String> suggest(String query, int limit) throws Exception {
+        MvcResult result = mockMvc.perform(
+                get("/contacts/suggest")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("q", query)
+                    .queryParam("limit", String.valueOf(limit))
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andReturn();
+
+        WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+        assertNull(response.getErrors());
+
+        return response.getData().stream().map(ContactResponse::getId).collect(Collectors.toSet());
+    }
 }
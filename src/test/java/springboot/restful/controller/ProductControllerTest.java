@@ -1,16 +1,20 @@
 package springboot.restful.controller;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityManagerFactory;
 import springboot.restful.entity.Category;
 import springboot.restful.entity.Product;
 import springboot.restful.entity.User;
@@ -23,16 +27,22 @@ import springboot.restful.repository.UserRepository;
 import springboot.restful.request.CreateProductRequest;
 import springboot.restful.request.UpdateProductRequest;
 import springboot.restful.security.BCrypt;
+import springboot.restful.service.ProductImportService;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"
+})
 @AutoConfigureMockMvc
 public class ProductControllerTest {
 
@@ -57,6 +67,12 @@ public class ProductControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductImportService productImportService;
+
     @BeforeEach
     void setUp() {
         addressRepository.deleteAll();
@@ -70,7 +86,7 @@ public class ProductControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -99,7 +115,7 @@ public class ProductControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -128,7 +144,7 @@ public class ProductControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -152,7 +168,7 @@ public class ProductControllerTest {
         mockMvc.perform(
                 get("/products/notfound")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -184,7 +200,7 @@ public class ProductControllerTest {
         mockMvc.perform(
                 get("/products/" + product.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -218,7 +234,7 @@ public class ProductControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isBadRequest()
@@ -266,7 +282,7 @@ public class ProductControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -290,7 +306,7 @@ public class ProductControllerTest {
         mockMvc.perform(
                 delete("/products/notfound")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -322,7 +338,7 @@ public class ProductControllerTest {
         mockMvc.perform(
                 delete("/products/" + product.getId())
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -340,7 +356,7 @@ public class ProductControllerTest {
         mockMvc.perform(
                 get("/products")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -377,7 +393,7 @@ public class ProductControllerTest {
                 get("/products")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("name", "Product")
             )
             .andExpectAll(
@@ -397,7 +413,7 @@ public class ProductControllerTest {
                 get("/products")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("priceBuy", "0.00")
             )
             .andExpectAll(
@@ -417,7 +433,7 @@ public class ProductControllerTest {
                 get("/products")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("priceSell", "0.00")
             )
             .andExpectAll(
@@ -437,7 +453,7 @@ public class ProductControllerTest {
                 get("/products")
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
                     .queryParam("name", "product")
                     .queryParam("page", "1")
             )
@@ -455,12 +471,421 @@ public class ProductControllerTest {
             });
     }
 
+    @Test
+    void testSearchProductStatementCount() throws Exception {
+        for (int c = 1; c <= 5; c++) {
+            Category category = new Category();
+            category.setId("TestCategory" + c);
+            category.setName("Category " + c);
+            category.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            category.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            categoryRepository.save(category);
+
+            for (int i = 1; i <= 20; i++) {
+                Product product = new Product();
+                product.setId(UUID.randomUUID().toString());
+                product.setName("Product" + c + "-" + i);
+                product.setPriceBuy((i*1000.00));
+                product.setPriceSell((i*1000.00) + (i*1000.00*0.3));
+                product.setStock(i*10);
+                product.setCategory(category);
+                product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+                product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+                productRepository.save(product);
+            }
+        }
+
+        // Resolve the token once so only the product reads are counted
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("name", "Product")
+                    .queryParam("size", "100")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(100, response.getData().size());
+                assertNotNull(response.getData().get(99).getCategory().getName());
+
+                // One page query and one count query, categories come from the category cache
+                assertEquals(2, statistics.getPrepareStatementCount());
+            });
+    }
+
+    @Test
+    void testSearchProductWithoutTotal() throws Exception {
+        Category category = categoryRepository.findById("TestCategory").orElseThrow();
+
+        for (int i = 1; i <= 25; i++) {
+            Product product = new Product();
+            product.setId(UUID.randomUUID().toString());
+            product.setName("Product" + i);
+            product.setPriceBuy((i*1000.00));
+            product.setPriceSell((i*1000.00) + (i*1000.00*0.3));
+            product.setStock(i*10);
+            product.setCategory(category);
+            product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            productRepository.save(product);
+        }
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("name", "Product")
+                    .queryParam("withTotal", "false")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(10, response.getData().size());
+                assertTrue(response.getPaging().getHasNext());
+                assertNull(response.getPaging().getTotalPage());
+                assertNull(response.getPaging().getApproximateTotal());
+
+                // No count query
+                assertEquals(1, statistics.getPrepareStatementCount());
+            });
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("name", "Product")
+                    .queryParam("withTotal", "false")
+                    .queryParam("approximateTotal", "true")
+                    .queryParam("page", "2")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(5, response.getData().size());
+                assertFalse(response.getPaging().getHasNext());
+                assertEquals(2, response.getPaging().getCurrentPage());
+                assertEquals(25L, response.getPaging().getApproximateTotal());
+            });
+    }
+
+    @Test
+    void testSearchProductRangeAndSort() throws Exception {
+        Category category = categoryRepository.findById("TestCategory").orElseThrow();
+
+        for (int i = 1; i <= 10; i++) {
+            Product product = new Product();
+            product.setId("Product" + i);
+            product.setName("Product" + i);
+            product.setPriceBuy((i*1000.00));
+            product.setPriceSell((i*1000.00) + (i*1000.00*0.3));
+            product.setStock(100 - i*10);
+            product.setCategory(category);
+            product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            productRepository.save(product);
+        }
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("categoryId", "TestCategory")
+                    .queryParam("priceSell", "3900")
+                    .queryParam("priceSellMax", "7800")
+                    .queryParam("stockMax", "50")
+                    .queryParam("sort", "-price")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(List.of("Product6", "Product5"), response.getData().stream().map(ProductResponse::getId).toList());
+            });
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("priceBuyMax", "3000")
+                    .queryParam("sort", "stock")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(List.of("Product3", "Product2", "Product1"), response.getData().stream().map(ProductResponse::getId).toList());
+            });
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("sort", "name")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            );
+    }
+
+    @Test
+    void testSearchProductFullText() throws Exception {
+        Category category = categoryRepository.findById("TestCategory").orElseThrow();
+
+        String[][] products = {
+            { "Logitech G102 Mouse", "Wired gaming mouse with RGB lighting" },
+            { "Rexus Daxa Keyboard", "Mechanical keyboard, bundled with a wireless mouse" },
+            { "Asus VA24 Monitor", "24 inch IPS monitor" }
+        };
+        String[] ids = new String[products.length];
+        for (int i = 0; i < products.length; i++) {
+            Product product = new Product();
+            product.setId(UUID.randomUUID().toString());
+            product.setName(products[i][0]);
+            product.setDescription(products[i][1]);
+            product.setPriceBuy(100000.00);
+            product.setPriceSell(150000.00);
+            product.setStock(10);
+            product.setCategory(category);
+            product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            productRepository.save(product);
+            ids[i] = product.getId();
+        }
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("q", "mouse")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                // Named and described as a mouse ranks above only mentioned in the description
+                assertEquals(List.of(ids[0], ids[1]), response.getData().stream().map(ProductResponse::getId).toList());
+                assertEquals(1, response.getPaging().getTotalPage());
+            });
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("q", "wireless keyboard")
+                    .queryParam("stock", "5")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(List.of(ids[1]), response.getData().stream().map(ProductResponse::getId).toList());
+            });
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("q", "mouse")
+                    .queryParam("cursor", "")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            );
+    }
+
+    @Test
+    void testImportProduct() throws Exception {
+        String csv = "name,priceBuy,priceSell,stock,description,categoryId\n"
+            + "Rexus Daxa Air IV,800000,900000,100,Wireless mouse,TestCategory\n"
+            + "Logitech G102,-1,250000,10,Wired mouse,TestCategory\n"
+            + "Asus VA24,1500000,1800000,5,Monitor,MissingCategory\n"
+            + "\"Keyboard, mechanical\",400000,500000,20,\"Blue switch, RGB\",TestCategory\n";
+
+        mockMvc.perform(
+                post("/products/import")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType("text/csv")
+                    .content(csv)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ProductImportResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(ProductImportResponse.Action.DONE, response.getData().getAction());
+                assertNull(response.getData().getResumeFrom());
+                assertEquals(4, response.getData().getRows());
+                assertEquals(2, response.getData().getInserted());
+                assertEquals(2, response.getData().getFailed());
+                assertEquals(List.of(1, 2), response.getData().getErrors().stream().map(BulkItemResponse::getIndex).toList());
+                assertEquals("Category not found", response.getData().getErrors().get(1).getErrors());
+            });
+
+        assertEquals(2, productRepository.count());
+        assertTrue(productRepository.findAll().stream().anyMatch(product -> product.getName().equals("Keyboard, mechanical")));
+
+        // Resume skips the rows already imported and stops at the row that cannot be read
+        String ndjson = "{\"name\":\"Imported before\",\"priceBuy\":1,\"priceSell\":2,\"stock\":3,\"description\":\"Skipped\",\"categoryId\":\"TestCategory\"}\n"
+            + "{\"name\":\"Imported now\",\"priceBuy\":1,\"priceSell\":2,\"stock\":3,\"description\":\"New\",\"categoryId\":\"TestCategory\"}\n"
+            + "{\"name\": \n";
+
+        mockMvc.perform(
+                post("/products/import")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(ndjson)
+                    .queryParam("resumeFrom", "1")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ProductImportResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(ProductImportResponse.Action.STOP, response.getData().getAction());
+                assertEquals(2, response.getData().getResumeFrom());
+                assertEquals(1, response.getData().getInserted());
+                assertEquals(2, response.getData().getErrors().get(0).getIndex());
+            });
+
+        assertEquals(3, productRepository.count());
+        assertTrue(productRepository.findAll().stream().noneMatch(product -> product.getName().equals("Imported before")));
+    }
+
+    @Test
+    void testImportProductStopsOnRejectedChunk() throws Exception {
+        // 1e300 passes validation but is out of range for the price column
+        String csv = "name,priceBuy,priceSell,stock,description,categoryId\n"
+            + "Rexus Daxa Air IV,800000,900000,100,Wireless mouse,TestCategory\n"
+            + "Logitech G102,200000,250000,10,Wired mouse,TestCategory\n"
+            + "Asus VA24,1500000,1800000,5,Monitor,TestCategory\n"
+            + "Keyboard,1e300,500000,20,Blue switch,TestCategory\n"
+            + "Headset,300000,350000,15,Wireless,TestCategory\n";
+
+        ReflectionTestUtils.setField(productImportService, "chunkSize", 2);
+        try {
+            mockMvc.perform(
+                    post("/products/import")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType("text/csv")
+                        .content(csv)
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                )
+                .andExpectAll(
+                    status().isOk()
+                )
+                .andDo(result -> {
+                    WebResponse<ProductImportResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                    assertNull(response.getErrors());
+                    assertEquals(ProductImportResponse.Action.STOP, response.getData().getAction());
+                    assertEquals(2, response.getData().getResumeFrom());
+                    assertEquals(4, response.getData().getRows());
+                    assertEquals(2, response.getData().getInserted());
+                    assertEquals(2, response.getData().getFailed());
+                    assertEquals(List.of(2, 3), response.getData().getErrors().stream().map(BulkItemResponse::getIndex).toList());
+                });
+        } finally {
+            ReflectionTestUtils.setField(productImportService, "chunkSize", 1000);
+        }
+
+        assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    void testGetProductAfterCategoryRenamed() throws Exception {
+        Category category = categoryRepository.findById("TestCategory").orElseThrow();
+
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Rexus Daxa Air IV");
+        product.setPriceBuy(800000.00);
+        product.setPriceSell(900000.00);
+        product.setStock(100);
+        product.setCategory(category);
+        product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        productRepository.save(product);
+
+        category.setName("Mouse & Keyboard");
+        category.setUpdatedAt(new Timestamp(System.currentTimeMillis() + 1000));
+        categoryRepository.save(category);
+
+        mockMvc.perform(
+                get("/products/" + product.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ProductResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals("Mouse & Keyboard", response.getData().getCategory().getName());
+            });
+    }
+
     @Test
     void testListProductNotFound() throws Exception {
         mockMvc.perform(
                 get("/categories/notfound/products")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isNotFound()
@@ -492,7 +917,7 @@ public class ProductControllerTest {
         mockMvc.perform(
                 get("/categories/" + category.getId() + "/products")
                     .accept(MediaType.APPLICATION_JSON)
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -505,4 +930,226 @@ public class ProductControllerTest {
             });
     }
 
+    @Test
+    void testGetProductFromEntityCache() throws Exception {
+        Category category = categoryRepository.findById("TestCategory").orElseThrow();
+
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Rexus Daxa Air IV");
+        product.setPriceBuy(800000.00);
+        product.setPriceSell(900000.00);
+        product.setStock(100);
+        product.setDescription("Gaming mouse high end");
+        product.setCategory(category);
+        product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        productRepository.save(product);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < 2; i++) {
+            statistics.clear();
+
+            mockMvc.perform(
+                    get("/products/" + product.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                )
+                .andExpectAll(
+                    status().isOk()
+                );
+        }
+
+        // The second read is served from the products region without a query
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("products").getHitCount());
+
+        UpdateProductRequest request = new UpdateProductRequest();
+        request.setName("Rexus Daxa Air Mini");
+        request.setPriceBuy(850000.00);
+        request.setPriceSell(950000.00);
+        request.setStock(50);
+        request.setDescription("Gaming mouse high end");
+        request.setCategoryId(category.getId());
+
+        mockMvc.perform(
+                put("/products/" + product.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        mockMvc.perform(
+                get("/products/" + product.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ProductResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals("Rexus Daxa Air Mini", response.getData().getName());
+                assertEquals(50, response.getData().getStock());
+            });
+
+        mockMvc.perform(
+                get("/actuator/entitycache")
+                    .accept(MediaType.APPLICATION_JSON)
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                Map<String, Map<String, Object>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertTrue(response.containsKey("categories"));
+                assertTrue(response.containsKey("default-query-results-region"));
+                assertTrue((Double) response.get("products").get("hitRatio") > 0);
+            });
+    }
+
+    @Test
+    void testListProductAfterImport() throws Exception {
+        Category category = categoryRepository.findById("TestCategory").orElseThrow();
+
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Rexus Daxa Air IV");
+        product.setPriceBuy(800000.00);
+        product.setPriceSell(900000.00);
+        product.setStock(100);
+        product.setCategory(category);
+        product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        productRepository.save(product);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(
+                    get("/categories/" + category.getId() + "/products")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                )
+                .andExpectAll(
+                    status().isOk()
+                );
+        }
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // Imported with JDBC, the cached list has to be dropped
+        mockMvc.perform(
+                post("/products/import")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType("text/csv")
+                    .content("name,priceBuy,priceSell,stock,description,categoryId\n"
+                        + "Logitech G102,200000,250000,10,Wired mouse,TestCategory\n")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        mockMvc.perform(
+                get("/categories/" + category.getId() + "/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(2, response.getData().size());
+            });
+    }
+
+    @Test
+    void testGetProductsByIds() throws Exception {
+        Category category = categoryRepository.findById("TestCategory").orElseThrow();
+
+        Category other = new Category();
+        other.setId("OtherCategory");
+        other.setName("Phone");
+        other.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        other.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        categoryRepository.save(other);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Product product = new Product();
+            product.setId(UUID.randomUUID().toString());
+            product.setName("Product" + i);
+            product.setPriceBuy(1000.00);
+            product.setPriceSell(1200.00);
+            product.setStock(10);
+            product.setDescription("Description " + i);
+            product.setCategory(i % 2 == 0 ? category : other);
+            product.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            productRepository.save(product);
+            ids.add(product.getId());
+        }
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            );
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<String> requested = List.of(ids.get(4), "NotFound", ids.get(1), ids.get(3), ids.get(4), ids.get(0), ids.get(2).toUpperCase(), ids.get(1).toUpperCase());
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("ids", String.join(",", requested))
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<MultiGetResponse<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                // Ids match in any case, like they do in the query
+                assertEquals(List.of(ids.get(4), ids.get(1), ids.get(3), ids.get(0), ids.get(2)), response.getData().getItems().stream().map(ProductResponse::getId).toList());
+                assertEquals(List.of("NotFound"), response.getData().getMissing());
+                assertEquals("Phone", response.getData().getItems().get(1).getCategory().getName());
+                assertEquals("Computer & Laptop", response.getData().getItems().get(0).getCategory().getName());
+
+                // One IN query for the products, the categories come from the category cache
+                assertEquals(1, statistics.getPrepareStatementCount());
+            });
+
+        List<String> tooMany = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            tooMany.add(UUID.randomUUID().toString());
+        }
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("ids", String.join(",", tooMany))
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            );
+    }
 }
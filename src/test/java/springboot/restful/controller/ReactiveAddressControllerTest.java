@@ -0,0 +1,282 @@
+package springboot.restful.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import springboot.restful.entity.Address;
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.User;
+import springboot.restful.model.*;
+import springboot.restful.repository.AddressRepository;
+import springboot.restful.repository.ContactRepository;
+import springboot.restful.repository.UserRepository;
+import springboot.restful.request.CreateAddressRequest;
+import springboot.restful.request.UpdateAddressRequest;
+import springboot.restful.security.BCrypt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReactiveAddressControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAll();
+        contactRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
+        user.setName("Admin Admin");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
+        user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userRepository.save(user);
+
+        User other = new User();
+        other.setId(UUID.randomUUID().toString());
+        other.setEmail("other@gmail.com");
+        other.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
+        other.setName("Other");
+        other.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72");
+        other.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
+        other.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        other.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userRepository.save(other);
+
+        Contact contact = new Contact();
+        contact.setId("123456");
+        contact.setFirstname("Ucup");
+        contact.setLastname("bin Otong");
+        contact.setEmail("ucup@gmail.com");
+        contact.setPhone("081234567890");
+        contact.setUser(user);
+        contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        contact.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        contactRepository.save(contact);
+    }
+
+    private Address address() {
+        Address address = new Address();
+        address.setId(UUID.randomUUID().toString());
+        address.setStreet("Jalan Jenderal Basuki Rachmat");
+        address.setCity("Surabaya");
+        address.setProvince("Jawa Timur");
+        address.setCountry("Indonesia");
+        address.setPostalCode("60261");
+        address.setContact(contactRepository.findById("123456").orElseThrow());
+        address.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        address.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        return addressRepository.save(address);
+    }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(asyncDispatch(
+            mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn()
+        ));
+    }
+
+    @Test
+    void testCreateAddressBadRequest() throws Exception {
+        CreateAddressRequest request = new CreateAddressRequest();
+        request.setStreet("");
+        request.setCountry("");
+
+        perform(
+                post("/reactive/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNotNull(response.getErrors());
+            });
+    }
+
+    @Test
+    void testCreateAddressSuccess() throws Exception {
+        CreateAddressRequest request = new CreateAddressRequest();
+        request.setStreet("Jalan Jenderal Basuki Rachmat");
+        request.setCity("Surabaya");
+        request.setProvince("Jawa Timur");
+        request.setCountry("Indonesia");
+        request.setPostalCode("60261");
+
+        perform(
+                post("/reactive/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            );
+
+        perform(
+                post("/reactive/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<AddressResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(request.getStreet(), response.getData().getStreet());
+                assertEquals(request.getPostalCode(), response.getData().getPostalCode());
+                assertTrue(addressRepository.existsById(response.getData().getId()));
+            });
+    }
+
+    @Test
+    void testGetAddressSuccess() throws Exception {
+        Address address = address();
+
+        perform(
+                get("/reactive/contacts/123456/addresses/notfound")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            );
+
+        perform(
+                get("/reactive/contacts/123456/addresses/" + address.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<AddressResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(address.getId(), response.getData().getId());
+                assertEquals(address.getStreet(), response.getData().getStreet());
+                assertEquals(address.getCity(), response.getData().getCity());
+            });
+    }
+
+    @Test
+    void testUpdateAddressSuccess() throws Exception {
+        Address address = address();
+
+        UpdateAddressRequest request = new UpdateAddressRequest();
+        request.setStreet("Jalan Raya Darmo");
+        request.setCity("Surabaya");
+        request.setProvince("Jawa Timur");
+        request.setCountry("Indonesia");
+        request.setPostalCode("60241");
+
+        perform(
+                put("/reactive/contacts/123456/addresses/" + address.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<AddressResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals("Jalan Raya Darmo", response.getData().getStreet());
+                assertEquals("60241", addressRepository.findById(address.getId()).orElseThrow().getPostalCode());
+            });
+    }
+
+    @Test
+    void testDeleteAndListAddress() throws Exception {
+        Address address = address();
+        address();
+
+        perform(
+                get("/reactive/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            );
+
+        perform(
+                delete("/reactive/contacts/123456/addresses/" + address.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals("Delete address success", response.getMessages());
+                assertFalse(addressRepository.existsById(address.getId()));
+            });
+
+        perform(
+                get("/reactive/contacts/123456/addresses")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<AddressResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(1, response.getData().size());
+            });
+    }
+}
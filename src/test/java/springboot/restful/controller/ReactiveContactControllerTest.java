@@ -0,0 +1,344 @@
+package springboot.restful.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.User;
+import springboot.restful.model.*;
+import springboot.restful.repository.AddressRepository;
+import springboot.restful.repository.ContactRepository;
+import springboot.restful.repository.UserRepository;
+import springboot.restful.request.CreateContactRequest;
+import springboot.restful.request.UpdateContactRequest;
+import springboot.restful.security.BCrypt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReactiveContactControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        addressRepository.deleteAll();
+        contactRepository.deleteAll();
+        userRepository.deleteAll();
+
+        userRepository.save(user("admin@gmail.com", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71"));
+        userRepository.save(user("other@gmail.com", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72"));
+    }
+
+    private User user(String email, String token) {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail(email);
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
+        user.setName("Admin Admin");
+        user.setToken(token);
+        user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        return user;
+    }
+
+    private Contact contact(String firstname) {
+        Contact contact = new Contact();
+        contact.setId(UUID.randomUUID().toString());
+        contact.setFirstname(firstname);
+        contact.setLastname("bin Otong");
+        contact.setEmail("ucup@gmail.com");
+        contact.setPhone("081234567890");
+        contact.setUser(userRepository.findByToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71").orElseThrow());
+        contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        contact.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        return contactRepository.save(contact);
+    }
+
+    // The handler returns before the database answers, the response is written on the async dispatch.
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(asyncDispatch(
+            mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn()
+        ));
+    }
+
+    @Test
+    void testCreateContactBadRequest() throws Exception {
+        CreateContactRequest request = new CreateContactRequest();
+        request.setFirstname("");
+        request.setEmail("salah");
+
+        perform(
+                post("/reactive/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isBadRequest()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNotNull(response.getErrors());
+            });
+    }
+
+    @Test
+    void testCreateContactSuccess() throws Exception {
+        CreateContactRequest request = new CreateContactRequest();
+        request.setFirstname("Ucup");
+        request.setLastname("bin Otong");
+        request.setEmail("ucup@gmail.com");
+        request.setPhone("081234567890");
+
+        perform(
+                post("/reactive/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals("Create contact success", response.getMessages());
+                assertEquals("Ucup", response.getData().getFirstname());
+                assertEquals("ucup@gmail.com", response.getData().getEmail());
+                assertTrue(contactRepository.existsById(response.getData().getId()));
+            });
+    }
+
+    @Test
+    void testGetContactUnauthorized() throws Exception {
+        Contact contact = contact("Ucup");
+
+        perform(
+                get("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "salah")
+            )
+            .andExpectAll(
+                status().isUnauthorized()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNotNull(response.getErrors());
+            });
+    }
+
+    @Test
+    void testGetContactUnknownToken() throws Exception {
+        Contact contact = contact("Ucup");
+
+        // Well-formed but never issued, so it gets past the shape check and misses the lookup
+        perform(
+                get("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", UUID.randomUUID().toString())
+            )
+            .andExpectAll(
+                status().isUnauthorized()
+            );
+    }
+
+    @Test
+    void testGetContactOfOtherUser() throws Exception {
+        Contact contact = contact("Ucup");
+
+        perform(
+                get("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals("Contact not found", response.getErrors());
+            });
+    }
+
+    @Test
+    void testGetContactSuccess() throws Exception {
+        Contact contact = contact("Ucup");
+
+        perform(
+                get("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(contact.getId(), response.getData().getId());
+                assertEquals(contact.getFirstname(), response.getData().getFirstname());
+                assertEquals(contact.getLastname(), response.getData().getLastname());
+                assertEquals(contact.getEmail(), response.getData().getEmail());
+                assertEquals(contact.getPhone(), response.getData().getPhone());
+            });
+
+        // Same body as the servlet endpoint
+        String servlet = mockMvc.perform(
+                get("/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andReturn().getResponse().getContentAsString();
+        String reactive = perform(
+                get("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andReturn().getResponse().getContentAsString();
+        assertEquals(objectMapper.readTree(servlet), objectMapper.readTree(reactive));
+    }
+
+    @Test
+    void testUpdateContactSuccess() throws Exception {
+        Contact contact = contact("Ucup");
+
+        UpdateContactRequest request = new UpdateContactRequest();
+        request.setFirstname("Otong");
+        request.setLastname("bin Ucup");
+        request.setEmail("otong@gmail.com");
+        request.setPhone("089876543210");
+
+        perform(
+                put("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals("Otong", response.getData().getFirstname());
+
+                Contact updated = contactRepository.findById(contact.getId()).orElseThrow();
+                assertEquals("Otong", updated.getFirstname());
+                assertEquals("otong@gmail.com", updated.getEmail());
+            });
+    }
+
+    @Test
+    void testDeleteContactSuccess() throws Exception {
+        Contact contact = contact("Ucup");
+
+        perform(
+                delete("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            );
+        assertTrue(contactRepository.existsById(contact.getId()));
+
+        perform(
+                delete("/reactive/contacts/" + contact.getId())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals("Delete contact success", response.getMessages());
+                assertFalse(contactRepository.existsById(contact.getId()));
+            });
+    }
+
+    @Test
+    void testSearchContactSuccess() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            contact("Ucup " + i);
+        }
+
+        perform(
+                get("/reactive/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                    .queryParam("name", "ucup")
+                    .queryParam("page", "2")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals(5, response.getData().size());
+                assertEquals(3, response.getPaging().getTotalPage());
+                assertEquals(2, response.getPaging().getCurrentPage());
+                assertEquals(10, response.getPaging().getSize());
+            });
+
+        perform(
+                get("/reactive/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c72")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(0, response.getData().size());
+                assertEquals(0, response.getPaging().getTotalPage());
+            });
+    }
+}
@@ -1,16 +1,20 @@
 package springboot.restful.controller;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.EntityManagerFactory;
 import springboot.restful.entity.User;
 import springboot.restful.model.*;
 import springboot.restful.repository.AddressRepository;
@@ -25,6 +29,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.sql.Timestamp;
+import java.util.List;
 import java.util.UUID;
 
 @SpringBootTest
@@ -46,6 +51,12 @@ public class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         addressRepository.deleteAll();
@@ -152,6 +163,26 @@ public class UserControllerTest {
             });
     }
 
+    @Test
+    void testUserUnauthorizedMalformedTokenWithoutQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (String token : List.of(UUID.randomUUID().toString().toUpperCase(), "random-" + UUID.randomUUID(), "x".repeat(36))) {
+            mockMvc.perform(
+                    get("/users/current")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-TOKEN", token)
+                )
+                .andExpectAll(
+                    status().isUnauthorized()
+                );
+        }
+
+        // Rejected on their shape, never looked up
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
     @Test
     void testUserUnauthorizedTokenNotSend() throws Exception {
         mockMvc.perform(
@@ -168,6 +199,47 @@ public class UserControllerTest {
             });
     }
 
+    @Test
+    void testUserUnauthorizedThenTokenIssued() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(
+                    get("/users/current")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+                )
+                .andExpectAll(
+                    status().isUnauthorized()
+                );
+        }
+
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
+        user.setName("Admin Admin");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
+        user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+        userRepository.save(user);
+
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<UserResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertNull(response.getErrors());
+                assertEquals("admin@gmail.com", response.getData().getEmail());
+            });
+    }
+
     @Test
     void testGetUserSuccess() throws Exception {
         User user = new User();
@@ -175,7 +247,7 @@ public class UserControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -206,7 +278,7 @@ public class UserControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() - (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -255,7 +327,7 @@ public class UserControllerTest {
         user.setEmail("admin@gmail.com");
         user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
         user.setName("Admin Admin");
-        user.setToken("TestToken");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
         user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
         user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
         user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
@@ -271,7 +343,7 @@ public class UserControllerTest {
                     .accept(MediaType.APPLICATION_JSON)
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(objectMapper.writeValueAsString(request))
-                    .header("X-API-TOKEN", "TestToken")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71")
             )
             .andExpectAll(
                 status().isOk()
@@ -287,4 +359,69 @@ public class UserControllerTest {
                 assertTrue(BCrypt.checkpw("AdminGanteng123;", userDB.getPassword()));
             });
     }
+
+    @Test
+    void testUpdateUserNameKeepsConcurrentPasswordChange() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("admin@gmail.com");
+        user.setPassword(BCrypt.hashpw("Admin123", BCrypt.gensalt()));
+        user.setName("Admin Admin");
+        user.setToken("7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c71");
+        user.setTokenExpiredAt(System.currentTimeMillis() + (1000 * 16 * 24 * 30));
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+
+        userRepository.save(user);
+
+        // Caches the caller, then changes the password behind the cache's back, as a concurrent request would
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", user.getToken())
+            )
+            .andExpect(status().isOk());
+
+        String password = BCrypt.hashpw("Changed123", BCrypt.gensalt(4));
+        jdbcTemplate.update("UPDATE users SET password = ? WHERE email = ?", password, user.getEmail());
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setName("Ucup bin Otong");
+
+        mockMvc.perform(
+                patch("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request))
+                    .header("X-API-TOKEN", user.getToken())
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<UserResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                User userDB = userRepository.findById("admin@gmail.com").orElse(null);
+
+                assertNull(response.getErrors());
+                assertEquals("Ucup bin Otong", response.getData().getName());
+                assertEquals("Ucup bin Otong", userDB.getName());
+                assertEquals(password, userDB.getPassword());
+            });
+
+        // The write evicted the cached copy, the next request sees the new name
+        mockMvc.perform(
+                get("/users/current")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", user.getToken())
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<UserResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals("Ucup bin Otong", response.getData().getName());
+            });
+    }
 }
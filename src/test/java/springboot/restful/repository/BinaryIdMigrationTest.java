@@ -0,0 +1,266 @@
+package springboot.restful.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import springboot.restful.entity.BinaryIdType;
+import springboot.restful.model.AddressResponse;
+import springboot.restful.model.ContactResponse;
+import springboot.restful.model.ProductResponse;
+import springboot.restful.model.WebResponse;
+import springboot.restful.request.CreateContactRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Migrates a scratch copy of {@code database.sql} with {@link BinaryIdMigration}, writing rows
+ * between the phases like a running application would, then serves it with {@code app.id.storage=binary}.
+ */
+@SpringBootTest(properties = "app.id.storage=binary")
+@AutoConfigureMockMvc
+public class BinaryIdMigrationTest {
+
+    private static final String DATABASE = "spring_restful_api_binary_ids";
+
+    private static final String USER = UUID.randomUUID().toString();
+
+    private static final String CONTACT = UUID.randomUUID().toString();
+
+    private static final String WRITTEN_CONTACT = UUID.randomUUID().toString();
+
+    private static final String ADDRESS = UUID.randomUUID().toString();
+
+    private static final String CATEGORY = UUID.randomUUID().toString();
+
+    private static final String PRODUCT = UUID.randomUUID().toString();
+
+    @DynamicPropertySource
+    static void migratedDatabase(DynamicPropertyRegistry registry) throws Exception {
+        JdbcTemplate server = new JdbcTemplate(new DriverManagerDataSource("jdbc:mysql://localhost:3306/", "root", ""));
+        server.execute("DROP DATABASE IF EXISTS " + DATABASE);
+
+        String schema = new String(new FileSystemResource("database.sql").getContentAsByteArray(), StandardCharsets.UTF_8)
+            .replace("spring_restful_api", DATABASE);
+        try (Connection connection = server.getDataSource().getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ByteArrayResource(schema.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        String url = "jdbc:mysql://localhost:3306/" + DATABASE;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "root", ""));
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update("INSERT INTO users (id, email, password, name, token, token_expired_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            USER, "binary@gmail.com", "not-used", "Binary", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73", System.currentTimeMillis() + 3600000, now, now);
+        jdbcTemplate.update("INSERT INTO contacts (id, firstname, lastname, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+            CONTACT, "Ucup", "bin Otong", USER, now, now);
+        jdbcTemplate.update("INSERT INTO categories (id, name, created_at, updated_at) VALUES (?, ?, ?, ?)", CATEGORY, "Laptop", now, now);
+        jdbcTemplate.update("INSERT INTO products (id, name, price_buy, price_sell, stock, description, category_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            PRODUCT, "Laptop Gaming", 100, 120, 5, "Fast laptop for gaming", CATEGORY, now, now);
+
+        BinaryIdMigration migration = new BinaryIdMigration();
+        ReflectionTestUtils.setField(migration, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(migration, "chunkSize", 1);
+
+        migration.run("prepare");
+        migration.run("prepare");
+
+        // Written between prepare and cutover, the triggers fill the shadow columns
+        jdbcTemplate.update("INSERT INTO contacts (id, firstname, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+            WRITTEN_CONTACT, "Budi", USER, new Timestamp(now.getTime() + 1000), new Timestamp(now.getTime() + 1000));
+        jdbcTemplate.update("INSERT INTO addresses (id, street, country, postal_code, contact_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+            ADDRESS, "Street XYZ", "Indonesia", "12345", CONTACT, now, now);
+        assertEquals(List.of("contacts.id: 1 rows", "contacts.user_id: 1 rows", "categories.id: 1 rows", "products.id: 1 rows", "products.category_id: 1 rows", "users.id: 1 rows").stream().sorted().toList(),
+            migration.verify().stream().sorted().toList());
+
+        migration.run("backfill");
+        assertEquals(List.of(), migration.verify());
+
+        migration.run("cutover");
+
+        registry.add("spring.datasource.url", () -> url);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContactTrigramIndexer contactTrigramIndexer;
+
+    @Test
+    void testSchemaIsBinary() {
+        for (String column : List.of("users.id", "contacts.id", "contacts.user_id", "addresses.contact_id", "products.category_id", "contact_trigrams.contact_id")) {
+            String[] parts = column.split("\\.");
+            assertEquals("binary", jdbcTemplate.queryForObject(
+                "SELECT data_type FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+                String.class, parts[0], parts[1]), column);
+        }
+
+        assertEquals(5, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.referential_constraints WHERE constraint_schema = DATABASE()", Long.class));
+    }
+
+    @Test
+    void testGetMigratedRows() throws Exception {
+        mockMvc.perform(
+                get("/contacts/" + CONTACT)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(CONTACT, response.getData().getId());
+                assertEquals("Ucup", response.getData().getFirstname());
+            });
+
+        mockMvc.perform(
+                get("/contacts/" + CONTACT + "/addresses/" + ADDRESS)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<AddressResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(ADDRESS, response.getData().getId());
+            });
+
+        mockMvc.perform(
+                get("/contacts/not-a-uuid")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+            )
+            .andExpectAll(
+                status().isNotFound()
+            );
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+                    .queryParam("q", "laptop")
+                    .queryParam("categoryId", CATEGORY)
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(List.of(PRODUCT), response.getData().stream().map(ProductResponse::getId).toList());
+            });
+
+        mockMvc.perform(
+                get("/products")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+                    .queryParam("q", "laptop")
+                    .queryParam("categoryId", "not-a-uuid")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertTrue(response.getData().isEmpty());
+            });
+    }
+
+    @Test
+    void testWriteAndSearchAfterCutover() throws Exception {
+        mockMvc.perform(
+                post("/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(CreateContactRequest.builder().firstname("Joko").lastname("Otong").build()))
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<ContactResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(7, UUID.fromString(response.getData().getId()).version());
+                assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact_trigrams WHERE contact_id = ?", Long.class,
+                    (Object) BinaryIdType.toBytes(response.getData().getId())) > 0);
+            });
+
+        // The migrated contacts were queued for their trigrams at cutover
+        contactTrigramIndexer.indexPending();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contact_trigram_pending", Long.class));
+
+        mockMvc.perform(
+                get("/contacts")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+                    .queryParam("name", "otong")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                WebResponse<List<ContactResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {});
+
+                assertEquals(2, response.getData().size());
+                assertTrue(response.getData().stream().anyMatch(contact -> contact.getId().equals(CONTACT)));
+            });
+
+        mockMvc.perform(
+                get("/contacts/export")
+                    .header("X-API-TOKEN", "7d1e4c2a-5b3f-4e8a-9c6d-2f0b1a3e5c73")
+            )
+            .andExpectAll(
+                status().isOk()
+            )
+            .andDo(result -> {
+                List<ContactResponse> contacts = result.getResponse().getContentAsString().lines()
+                    .map(line -> {
+                        try {
+                            return objectMapper.readValue(line, ContactResponse.class);
+                        } catch (Exception exception) {
+                            throw new IllegalStateException(exception);
+                        }
+                    })
+                    .toList();
+
+                assertEquals(CONTACT, contacts.get(0).getId());
+                assertEquals(ADDRESS, contacts.get(0).getAddresses().get(0).getId());
+                assertEquals(WRITTEN_CONTACT, contacts.get(1).getId());
+            });
+    }
+}
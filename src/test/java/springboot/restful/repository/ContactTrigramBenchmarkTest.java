@@ -0,0 +1,143 @@
+package springboot.restful.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import springboot.restful.entity.Contact;
+import springboot.restful.entity.User;
+import springboot.restful.request.SearchContactRequest;
+import springboot.restful.service.ContactService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Contact search through {@link ContactService} with the trigram index switched off and on. Opt-in, it writes a lot of rows:
+ * {@code mvn test -Dtest=ContactTrigramBenchmarkTest -Dbenchmark.contacts=1000000}
+ */
+@SpringBootTest(properties = "spring.datasource.hikari.data-source-properties.rewriteBatchedStatements=true")
+@EnabledIfSystemProperty(named = "benchmark.contacts", matches = "\\d+")
+public class ContactTrigramBenchmarkTest {
+
+    private static final String CONSONANTS = "bcdfghjklmnprstwyz";
+
+    private static final String VOWELS = "aeiou";
+
+    private static final int BATCH_SIZE = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactTrigramRepository contactTrigramRepository;
+
+    @Autowired
+    private ContactService contactService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setEmail("benchmark@gmail.com");
+        user.setPassword("not-used");
+        user.setName("Benchmark");
+        user.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        user.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE t FROM contact_trigrams t JOIN users u ON u.id = t.user_id WHERE u.email = 'benchmark@gmail.com'");
+        jdbcTemplate.update("DELETE c FROM contacts c JOIN users u ON u.id = c.user_id WHERE u.email = 'benchmark@gmail.com'");
+        jdbcTemplate.update("DELETE FROM users WHERE email = 'benchmark@gmail.com'");
+    }
+
+    @Test
+    void benchmarkSubstringSearch() {
+        int total = Integer.getInteger("benchmark.contacts");
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        List<Contact> batch = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            Contact contact = new Contact();
+            contact.setId(UUID.randomUUID().toString());
+            contact.setFirstname(word(random, 2 + random.nextInt(2)));
+            contact.setLastname(word(random, 2 + random.nextInt(3)));
+            contact.setEmail(contact.getFirstname().toLowerCase() + i + "@example.com");
+            contact.setPhone("08" + (1000000000L + random.nextInt(1000000000)));
+            contact.setUser(user);
+            contact.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+            contact.setUpdatedAt(contact.getCreatedAt());
+            batch.add(contact);
+
+            if (batch.size() == BATCH_SIZE || i == total - 1) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        System.out.printf("loaded %d contacts in %d s%n", total, (System.nanoTime() - start) / 1_000_000_000);
+
+        for (String term : List.of("kotumi", "sarew", "bela", "jupo", "ri")) {
+            SearchContactRequest request = SearchContactRequest.builder().name(term).page(0).size(10).build();
+
+            ReflectionTestUtils.setField(contactTrigramRepository, "enabled", false);
+            long expected = contactService.search(user, request).getTotalElements();
+            long scanMillis = time(() -> contactService.search(user, request));
+
+            ReflectionTestUtils.setField(contactTrigramRepository, "enabled", true);
+            long actual = contactService.search(user, request).getTotalElements();
+            long indexMillis = time(() -> contactService.search(user, request));
+
+            System.out.printf("name=%-8s matches=%-7d scan=%5d ms trigram=%5d ms%n", term, expected, scanMillis, indexMillis);
+            assertEquals(expected, actual, term);
+        }
+    }
+
+    private static long time(Runnable search) {
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            search.run();
+        }
+        return (System.nanoTime() - start) / 5 / 1_000_000;
+    }
+
+    private void insert(List<Contact> contacts) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO contacts (id, firstname, lastname, email, phone, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            contacts.stream().map(contact -> new Object[] {
+                contact.getId(), contact.getFirstname(), contact.getLastname(), contact.getEmail(), contact.getPhone(),
+                user.getId(), contact.getCreatedAt(), contact.getUpdatedAt()
+            }).toList());
+        contactTrigramRepository.index(contacts);
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            builder.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            builder.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+        }
+        builder.setCharAt(0, Character.toUpperCase(builder.charAt(0)));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,306 @@
+package springboot.restful.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import springboot.restful.cache.CategoryCache;
+import springboot.restful.request.SearchProductRequest;
+import springboot.restful.service.ProductService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs every supported product filter and sort combination and EXPLAINs the statements Hibernate
+ * sends, with their bind values, to check that each one is served by the index meant for it: a range
+ * or ref access on the filter's index, ordered by that index when it also covers the sort. Only an
+ * unfiltered search walks an index, the sort's, and it stops at the page limit.
+ */
+@SpringBootTest
+public class ProductSearchPlanTest {
+
+    private static final int PRODUCTS = 5000;
+
+    private static final int CATEGORIES = 10;
+
+    private static final List<Plan> PLANS = new ArrayList<>();
+
+    private static volatile boolean explaining;
+
+    @TestConfiguration
+    static class ExplainConfiguration {
+
+        @Bean
+        static BeanPostProcessor explainingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new ExplainingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO categories (id, name, created_at, updated_at) VALUES (?, ?, ?, ?)",
+            IntStream.range(0, CATEGORIES)
+                .mapToObj(i -> new Object[] { "plan-" + i, "Plan " + i, new Timestamp(System.currentTimeMillis()), new Timestamp(System.currentTimeMillis()) })
+                .toList());
+
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO products (id, name, price_buy, price_sell, stock, category_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> new Object[] {
+                    "plan-product-" + i, "Product " + i, i * 10.0, i * 13.0, i % 500, "plan-" + (i % CATEGORIES),
+                    new Timestamp(System.currentTimeMillis() - i * 1000L), new Timestamp(System.currentTimeMillis())
+                })
+                .toList());
+
+        jdbcTemplate.execute("ANALYZE TABLE products");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        explaining = false;
+        PLANS.clear();
+
+        jdbcTemplate.update("DELETE FROM products WHERE category_id LIKE 'plan-%'");
+        jdbcTemplate.update("DELETE FROM categories WHERE id LIKE 'plan-%'");
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryCache.evict("plan-" + i);
+        }
+    }
+
+    @Test
+    void testEverySearchCombinationUsesItsIndex() {
+        List<Filter> filters = List.of(
+            new Filter(false, null, builder -> builder),
+            new Filter(true, null, builder -> builder.categoryId("plan-3")),
+            new Filter(false, "price_buy", builder -> builder.priceBuy(1000.0).priceBuyMax(2000.0)),
+            new Filter(false, "price_sell", builder -> builder.priceSell(1300.0).priceSellMax(2600.0)),
+            new Filter(false, "stock", builder -> builder.stock(10).stockMax(20)),
+            new Filter(false, "price_buy", builder -> builder.priceBuyMax(500.0)),
+            new Filter(true, "price_sell", builder -> builder.categoryId("plan-3").priceSell(1300.0).priceSellMax(2600.0)),
+            new Filter(true, "stock", builder -> builder.categoryId("plan-3").stock(10).stockMax(20))
+        );
+        List<String> sorts = Arrays.asList(null, "price", "-price", "stock", "-stock", "createdAt", "-createdAt");
+
+        List<String> failures = new ArrayList<>();
+        for (Filter filter : filters) {
+            for (String sort : sorts) {
+                SearchProductRequest request = filter.apply.apply(SearchProductRequest.builder()).sort(sort).page(1).size(10).build();
+
+                PLANS.clear();
+                explaining = true;
+                productService.search(null, request);
+                productService.slice(null, request);
+                explaining = false;
+
+                // The page query of the search and of the slice, plus the count when it could not be skipped
+                assertEquals(2, PLANS.stream().filter(Plan::isPage).count(), () -> "Page queries not explained for " + request);
+                for (Plan plan : PLANS) {
+                    String failure = filter.check(plan, sortColumn(sort));
+                    if (Objects.nonNull(failure)) {
+                        failures.add(failure + ": " + plan);
+                    }
+                }
+            }
+        }
+
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+    }
+
+    // The column of the indexes that serve the sort, with or without category_id in front.
+    private static String sortColumn(String sort) {
+        if (Objects.isNull(sort)) {
+            return "created_at";
+        }
+
+        return switch (sort.replace("-", "")) {
+            case "price" -> "price_sell";
+            case "stock" -> "stock";
+            default -> "created_at";
+        };
+    }
+
+    private static class Filter {
+
+        private final boolean category;
+
+        // The column the filter narrows to a range, null when it only filters by category or not at all.
+        private final String range;
+
+        private final UnaryOperator<SearchProductRequest.SearchProductRequestBuilder> apply;
+
+        Filter(boolean category, String range, UnaryOperator<SearchProductRequest.SearchProductRequestBuilder> apply) {
+            this.category = category;
+            this.range = range;
+            this.apply = apply;
+        }
+
+        private String index(String column) {
+            return (category ? "idx_products_category_" : "idx_products_") + column;
+        }
+
+        // Null when the plan is the one this filter's index gives, else what is wrong with it.
+        String check(Plan plan, String sortColumn) {
+            if (Objects.nonNull(range)) {
+                if (!plan.type.equals("range") || !index(range).equals(plan.key)) {
+                    return "expected a range on " + index(range);
+                }
+                // Sorting by another column than the range's has to sort the rows in the range
+                if (plan.isPage() && range.equals(sortColumn) && plan.isFilesort()) {
+                    return "expected the order of " + index(range);
+                }
+                return null;
+            }
+
+            if (category) {
+                // The count can use any index behind category_id, the page needs the one behind the sort
+                String expected = plan.isPage() ? index(sortColumn) : "idx_products_category_";
+                if (!plan.type.equals("ref") || Objects.isNull(plan.key) || !plan.key.startsWith(expected) || plan.isFilesort()) {
+                    return "expected a ref on " + expected;
+                }
+                return null;
+            }
+
+            // Unfiltered: the page walks the sort's index up to the limit, the count reads any index only
+            if (plan.isPage()) {
+                if (!plan.type.equals("index") || !index(sortColumn).equals(plan.key) || plan.isFilesort()) {
+                    return "expected an ordered walk of " + index(sortColumn);
+                }
+            } else if (!plan.type.equals("index") || !plan.extra.contains("Using index")) {
+                return "expected an index only count";
+            }
+            return null;
+        }
+    }
+
+    private static class Plan {
+
+        private final String sql;
+
+        private final String type;
+
+        private final String key;
+
+        private final String extra;
+
+        Plan(String sql, String type, String key, String extra) {
+            this.sql = sql;
+            this.type = type;
+            this.key = key;
+            this.extra = Objects.toString(extra, "");
+        }
+
+        boolean isPage() {
+            return sql.contains(" limit ");
+        }
+
+        boolean isFilesort() {
+            return extra.contains("Using filesort");
+        }
+
+        @Override
+        public String toString() {
+            return "type=" + type + " key=" + key + " extra=" + extra + " for " + sql;
+        }
+    }
+
+    private static class ExplainingDataSource extends DelegatingDataSource {
+
+        ExplainingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                Object result = invoke(method, connection, args);
+                if (explaining && method.getName().equals("prepareStatement") && ((String) args[0]).contains(" from products ")) {
+                    return explaining(connection, (String) args[0], (PreparedStatement) result);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement explaining(Connection connection, String sql, PreparedStatement statement) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+
+            return (PreparedStatement) Proxy.newProxyInstance(ExplainingDataSource.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                if (method.getName().startsWith("set") && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, method.getName().equals("setNull") ? null : args[1]);
+                }
+
+                if (method.getName().equals("executeQuery")) {
+                    explain(connection, sql, parameters);
+                }
+
+                return invoke(method, statement, args);
+            });
+        }
+
+        private static void explain(Connection connection, String sql, Map<Integer, Object> parameters) throws SQLException {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                    explain.setObject(parameter.getKey(), parameter.getValue());
+                }
+
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        PLANS.add(new Plan(sql, rows.getString("type"), rows.getString("key"), rows.getString("Extra")));
+                    }
+                }
+            }
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException exception) {
+                throw exception.getCause();
+            }
+        }
+    }
+}
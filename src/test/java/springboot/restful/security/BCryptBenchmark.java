@@ -0,0 +1,73 @@
+package springboot.restful.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link BCrypt} with {@link LegacyBCrypt}, single threaded and with one thread per core.
+ * Not run by surefire; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=springboot.restful.security.BCryptBenchmark}.
+ * Scores are hashes per second, {@code gc.alloc.rate.norm} is bytes allocated per hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BCryptBenchmark {
+
+    @Param({ "10", "12" })
+    private int logRounds;
+
+    private String salt;
+
+    @Setup
+    public void setUp() {
+        salt = BCrypt.gensalt(logRounds);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return LegacyBCrypt.hashpw("rahasia", salt);
+    }
+
+    @Benchmark
+    public String current() {
+        return BCrypt.hashpw("rahasia", salt);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String legacyContended() {
+        return LegacyBCrypt.hashpw("rahasia", salt);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String currentContended() {
+        return BCrypt.hashpw("rahasia", salt);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(BCryptBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
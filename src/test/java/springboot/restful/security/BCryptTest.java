@@ -0,0 +1,78 @@
+package springboot.restful.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BCryptTest {
+
+    private static final List<String> PASSWORDS = List.of(
+        "",
+        "a",
+        "rahasia",
+        "U*U*U*U*",
+        "été über £ €",
+        "🔐 password with an emoji",
+        "0123456789012345678901234567890123456789012345678901234567890123456789012345678901234567890123456789"
+    );
+
+    @Test
+    void testHashIdenticalToLegacy() {
+        SecureRandom random = new SecureRandom();
+        for (String prefix : List.of("$2a", "$2b", "$2y")) {
+            for (String password : PASSWORDS) {
+                String salt = BCrypt.gensalt(prefix, 4, random);
+
+                assertEquals(LegacyBCrypt.hashpw(password, salt), BCrypt.hashpw(password, salt));
+            }
+        }
+    }
+
+    @Test
+    void testSignExtensionBugIdenticalToLegacy() {
+        // Bytes with the high bit set trigger the 2x sign extension bug and the 2a safety measure
+        byte[] password = new byte[] { (byte) 0xa3, (byte) 0xff, 0x61, (byte) 0x80, (byte) 0xd1 };
+        String salt = BCrypt.gensalt(4).substring(4);
+
+        for (String prefix : List.of("$2a$", "$2x$", "$2y$", "$2b$")) {
+            assertEquals(LegacyBCrypt.hashpw(password, prefix + salt), BCrypt.hashpw(password, prefix + salt));
+        }
+    }
+
+    @Test
+    void testCheckAcceptsLegacyHash() {
+        String hashed = LegacyBCrypt.hashpw("rahasia", LegacyBCrypt.gensalt(4));
+
+        assertTrue(BCrypt.checkpw("rahasia", hashed));
+        assertFalse(BCrypt.checkpw("salah", hashed));
+    }
+
+    @Test
+    void testEngineReuseAcrossThreads() throws Exception {
+        String salt = BCrypt.gensalt(4);
+        String expected = LegacyBCrypt.hashpw("rahasia".getBytes(StandardCharsets.UTF_8), salt);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = executor.invokeAll(
+                Collections.nCopies(32, () -> {
+                    BCrypt.hashpw("another password", BCrypt.gensalt(4));
+                    return BCrypt.hashpw("rahasia", salt);
+                })
+            );
+            for (Future<String> future : futures) {
+                assertEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
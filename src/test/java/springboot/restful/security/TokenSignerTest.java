@@ -0,0 +1,37 @@
+package springboot.restful.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenSignerTest {
+
+    @Test
+    void testShortSecretIsRejected() {
+        TokenSigner tokenSigner = signer("abc");
+
+        assertThrows(IllegalStateException.class, tokenSigner::init);
+    }
+
+    @Test
+    void testSecretOf32BytesIsAccepted() {
+        TokenSigner tokenSigner = signer("TestSecretTestSecretTestSecret00");
+
+        assertDoesNotThrow(tokenSigner::init);
+    }
+
+    @Test
+    void testBlankSecretUsesRandomKey() {
+        TokenSigner tokenSigner = signer("");
+
+        assertDoesNotThrow(tokenSigner::init);
+    }
+
+    private TokenSigner signer(String secret) {
+        TokenSigner tokenSigner = new TokenSigner();
+        ReflectionTestUtils.setField(tokenSigner, "tokenMode", "signed");
+        ReflectionTestUtils.setField(tokenSigner, "tokenSecret", secret);
+        return tokenSigner;
+    }
+}
@@ -0,0 +1,77 @@
+package springboot.restful.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts the same rows into a contacts-shaped table keyed by random and by time-ordered ids and
+ * prints the insert rate as the table grows. Opt-in, it writes a lot of rows:
+ * {@code mvn test -Dtest=IdGeneratorBenchmarkTest -Dbenchmark.ids=10000000}
+ */
+@SpringBootTest(properties = "spring.datasource.hikari.data-source-properties.rewriteBatchedStatements=true")
+@EnabledIfSystemProperty(named = "benchmark.ids", matches = "\\d+")
+public class IdGeneratorBenchmarkTest {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private static final int REPORTS = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS id_benchmark");
+        ReflectionTestUtils.invokeMethod(idGenerator, "init");
+    }
+
+    @Test
+    void benchmarkInserts() {
+        int total = Integer.getInteger("benchmark.ids");
+
+        for (String mode : List.of("random", "time-ordered")) {
+            ReflectionTestUtils.setField(idGenerator, "mode", mode);
+            ReflectionTestUtils.invokeMethod(idGenerator, "init");
+
+            jdbcTemplate.execute("DROP TABLE IF EXISTS id_benchmark");
+            jdbcTemplate.execute("CREATE TABLE id_benchmark ("
+                + " id VARCHAR(255) NOT NULL, firstname VARCHAR(255) NOT NULL, email VARCHAR(255),"
+                + " created_at TIMESTAMP, PRIMARY KEY (id)) ENGINE InnoDB");
+
+            long start = System.nanoTime();
+            long reportStart = start;
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < total; i++) {
+                batch.add(new Object[] { idGenerator.next(), "Contact " + i, "contact" + i + "@example.com", new Timestamp(System.currentTimeMillis()) });
+
+                if (batch.size() == BATCH_SIZE || i == total - 1) {
+                    jdbcTemplate.batchUpdate("INSERT INTO id_benchmark (id, firstname, email, created_at) VALUES (?, ?, ?, ?)", batch);
+                    batch.clear();
+                }
+
+                if ((i + 1) % Math.max(1, total / REPORTS) == 0) {
+                    long now = System.nanoTime();
+                    System.out.printf("mode=%-12s rows=%-9d rows/s=%d%n", mode, i + 1, (long) (total / REPORTS / ((now - reportStart) / 1e9)));
+                    reportStart = now;
+                }
+            }
+
+            long size = jdbcTemplate.queryForObject(
+                "SELECT data_length + index_length FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = 'id_benchmark'", Long.class);
+            System.out.printf("mode=%-12s total=%d s rows/s=%d size=%d MB%n", mode, (System.nanoTime() - start) / 1_000_000_000,
+                (long) (total / ((System.nanoTime() - start) / 1e9)), size / 1024 / 1024);
+        }
+    }
+}
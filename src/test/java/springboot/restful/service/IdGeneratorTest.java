@@ -0,0 +1,76 @@
+package springboot.restful.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class IdGeneratorTest {
+
+    private static IdGenerator generator(String mode) {
+        IdGenerator generator = new IdGenerator();
+        ReflectionTestUtils.setField(generator, "mode", mode);
+        generator.init();
+        return generator;
+    }
+
+    @Test
+    void testTimeOrderedIsVersion7() {
+        long before = System.currentTimeMillis();
+        UUID id = UUID.fromString(generator("time-ordered").next());
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(id.getMostSignificantBits() >>> 16 >= before);
+    }
+
+    @Test
+    void testTimeOrderedIsMonotonicAcrossThreads() throws Exception {
+        IdGenerator generator = generator("time-ordered");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int j = 0; j < 50000; j++) {
+                        ids.add(generator.next());
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                List<String> ids = future.get();
+                for (int j = 1; j < ids.size(); j++) {
+                    assertTrue(ids.get(j - 1).compareTo(ids.get(j)) < 0, ids.get(j - 1) + " >= " + ids.get(j));
+                }
+                all.addAll(ids);
+            }
+            assertEquals(200000, all.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testRandomIsVersion4() {
+        assertEquals(4, UUID.fromString(generator("random").next()).version());
+    }
+
+    @Test
+    void testUnknownModeFails() {
+        assertThrows(IllegalStateException.class, () -> generator("sequence"));
+    }
+}